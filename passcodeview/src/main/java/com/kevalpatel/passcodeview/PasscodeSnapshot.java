@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.os.AsyncTask;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.kevalpatel.passcodeview.internal.BasePasscodeView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Persists the rendered snapshot of the idle {@link PinView} or {@link PatternView}, so that the
+ * next cold start can display it instantly while the live view is still being created and laid
+ * out.
+ * <p>
+ * Typical usage:
+ * <ol>
+ * <li>Once the live view is drawn and nothing is typed, call {@link #save(BasePasscodeView, String)}.</li>
+ * <li>On the next start, put an {@link android.widget.ImageView} above the live view and set the
+ * bitmap from {@link #load(Context, String, int, int)}. Load it on a worker thread.</li>
+ * <li>Call {@link #swapWhenReady(View, View)} to hide the placeholder in the same frame the live
+ * view draws for the first time.</li>
+ * </ol>
+ * The views don't do any of these steps by themselves. The application wires them up.
+ * <p>
+ * Snapshots are stored per theme key and size in the cache directory, so the system can clear them
+ * anytime. The snapshot is refused while the view is not idle (see {@link BasePasscodeView#isIdle()}),
+ * so the typed indicators (which reveal the PIN length) and the error states never reach the disk.
+ *
+ * @author agent
+ */
+public final class PasscodeSnapshot {
+    /**
+     * Name of the directory inside the cache directory to store snapshots.
+     */
+    private static final String SNAPSHOT_DIR = "passcode_snapshots";
+
+    private PasscodeSnapshot() {
+    }
+
+    /**
+     * Render the view into a bitmap and store it in the background. This does nothing if the view
+     * is not laid out yet or it isn't idle (e.g. user has typed some digits or the authentication
+     * result is being displayed).
+     *
+     * @param view     {@link PinView} or {@link PatternView} to snapshot.
+     * @param themeKey Key to identify the theme of the view (e.g. name of the style). Snapshots of
+     *                 different themes are stored separately.
+     * @return True if the snapshot is taken.
+     */
+    @MainThread
+    public static boolean save(@NonNull final BasePasscodeView view, @NonNull final String themeKey) {
+        final int width = view.getWidth();
+        final int height = view.getHeight();
+        if (width <= 0 || height <= 0) return false;
+
+        //Never persist the typed entry or the result state.
+        if (!view.isIdle()) return false;
+
+        //Drawing has to happen on the main thread. Encoding and writing doesn't.
+        final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        view.draw(new Canvas(bitmap));
+
+        final File file = getSnapshotFile(view.getContext(), themeKey, width, height);
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                writeSnapshot(bitmap, file);
+                bitmap.recycle();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Load the snapshot stored for the theme and the size. Decoding the bitmap reads the disk, so
+     * prefer calling this off the main thread.
+     *
+     * @param context  instance of the caller.
+     * @param themeKey Key used while saving the snapshot.
+     * @param width    Width of the view in pixels.
+     * @param height   Height of the view in pixels.
+     * @return Snapshot bitmap or null if no snapshot is stored for the theme and size.
+     */
+    @Nullable
+    @WorkerThread
+    public static Bitmap load(@NonNull final Context context,
+                              @NonNull final String themeKey,
+                              final int width,
+                              final int height) {
+        final File file = getSnapshotFile(context, themeKey, width, height);
+        return file.exists() ? BitmapFactory.decodeFile(file.getAbsolutePath()) : null;
+    }
+
+    /**
+     * Hide the placeholder when the live view is about to draw its first frame. Both views must be
+     * in the same window with the placeholder drawn on top of the live view.
+     *
+     * @param placeholder View displaying the snapshot.
+     * @param liveView    {@link PinView} or {@link PatternView} replacing the placeholder.
+     */
+    @MainThread
+    public static void swapWhenReady(@NonNull final View placeholder,
+                                     @NonNull final View liveView) {
+        liveView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                //Wait until the live view is laid out.
+                if (liveView.getWidth() <= 0 || liveView.getHeight() <= 0) return true;
+
+                liveView.getViewTreeObserver().removeOnPreDrawListener(this);
+                placeholder.setVisibility(View.GONE);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Delete all the stored snapshots. Call this whenever the theme of the view changes in a way
+     * the theme key doesn't capture.
+     *
+     * @param context instance of the caller.
+     */
+    public static void clear(@NonNull final Context context) {
+        final File[] files = getSnapshotDir(context).listFiles();
+        if (files == null) return;
+
+        for (File file : files) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @WorkerThread
+    private static void writeSnapshot(@NonNull final Bitmap bitmap, @NonNull final File file) {
+        final File dir = file.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w("PasscodeView", "Cannot create the snapshot directory.");
+            return;
+        }
+
+        //Write into the temp file and rename, so that the reader never sees half written file.
+        final File tempFile = new File(dir, file.getName() + ".tmp");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            if (bitmap.compress(Bitmap.CompressFormat.PNG, 100, out)) {
+                out.close();
+                out = null;
+                if (!tempFile.renameTo(file)) Log.w("PasscodeView", "Cannot store the snapshot.");
+            }
+        } catch (IOException e) {
+            Log.w("PasscodeView", "Cannot store the snapshot.", e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    //Do nothing
+                }
+            }
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+        }
+    }
+
+    @NonNull
+    private static File getSnapshotDir(@NonNull final Context context) {
+        return new File(context.getCacheDir(), SNAPSHOT_DIR);
+    }
+
+    @NonNull
+    private static File getSnapshotFile(@NonNull final Context context,
+                                        @NonNull final String themeKey,
+                                        final int width,
+                                        final int height) {
+        final String name = themeKey.replaceAll("[^A-Za-z0-9._-]", "_")
+                + "_" + width + "x" + height
+                + "_" + context.getResources().getDisplayMetrics().densityDpi
+                + ".png";
+        return new File(getSnapshotDir(context), name);
+    }
+}
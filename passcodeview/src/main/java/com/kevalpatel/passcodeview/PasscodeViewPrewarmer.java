@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.kevalpatel.passcodeview.internal.PrewarmCache;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Prepares the state {@link PinView} and {@link PatternView} need to draw their first frame on a
+ * background thread. Call {@link #prewarm(Context)} with the context the views will be created in
+ * while the previous screen is still visible (e.g. before showing the lock screen). The
+ * views will adopt the decoded icons, the resolved dimensions and the measured glyphs of the default
+ * key titles instead of preparing them on the main thread. The view attributes, paints and the
+ * keypad geometry depend on the view itself, so they are still prepared when the view is created
+ * and measured. Calling this is optional; views work the same without it.
+ *
+ * @author agent
+ */
+public final class PasscodeViewPrewarmer {
+
+    private PasscodeViewPrewarmer() {
+    }
+
+    /**
+     * Start prewarming on the background thread.
+     *
+     * @param context instance of the caller.
+     * @see #prewarm(Context, Runnable)
+     */
+    public static void prewarm(@NonNull final Context context) {
+        prewarm(context, null);
+    }
+
+    /**
+     * Start prewarming on the background thread.
+     *
+     * @param context    instance of the caller. Pass the context the views will be created in
+     *                   (e.g. the activity), so the dimensions are resolved for its configuration.
+     * @param onComplete {@link Runnable} to run on the main thread once prewarming finishes. This
+     *                   is optional.
+     */
+    public static void prewarm(@NonNull final Context context,
+                               @Nullable final Runnable onComplete) {
+        //Resolve with the resources of the caller, as its views will. Don't hold the activity
+        //context itself in the background thread.
+        final Resources resources = context.getResources();
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                PrewarmCache.prewarm(resources);
+
+                if (onComplete != null) new Handler(Looper.getMainLooper()).post(onComplete);
+            }
+        });
+    }
+}
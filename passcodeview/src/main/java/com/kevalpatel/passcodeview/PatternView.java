@@ -16,14 +16,11 @@ package com.kevalpatel.passcodeview;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.os.AsyncTask;
-import android.os.Handler;
-import android.os.Looper;
 import android.support.annotation.ColorInt;
 import android.support.annotation.ColorRes;
 import android.support.annotation.NonNull;
@@ -36,10 +33,13 @@ import com.kevalpatel.passcodeview.authenticator.PatternAuthenticator;
 import com.kevalpatel.passcodeview.internal.BasePasscodeView;
 import com.kevalpatel.passcodeview.internal.BoxPattern;
 import com.kevalpatel.passcodeview.internal.BoxTitle;
+import com.kevalpatel.passcodeview.internal.PasscodeTheme;
+import com.kevalpatel.passcodeview.internal.TaskScheduler;
 import com.kevalpatel.passcodeview.patternCells.PatternCell;
 import com.kevalpatel.passcodeview.patternCells.PatternPoint;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Created by Keval on 06-Apr-17.
@@ -55,9 +55,47 @@ public final class PatternView extends BasePasscodeView {
      */
     private ArrayList<PatternCell> mPatternTyped;
 
+    /**
+     * Task to clear the drawn pattern after the authentication result is displayed. Unlike
+     * {@link #reset()}, this won't cancel the other pending work like the error state of the
+     * cells.
+     */
+    @NonNull
+    private final TaskScheduler.Task mClearEntryTask = new TaskScheduler.Task() {
+        @Override
+        protected void onRun() {
+            isErrorShowing = false;
+            clearPatternTyped();
+            mBoxPattern.clearSelection();
+            invalidate();
+        }
+
+        @Override
+        protected void onCancel() {
+            isErrorShowing = false;
+            clearPatternTyped();
+            mBoxPattern.clearSelection();
+        }
+    };
+
     private float mPatternPathEndX;
     private float mPatternPathEndY;
 
+    /**
+     * Line buffer for the committed part of the pattern path. Every four values are the start and
+     * end coordinates of the line between two consecutive cells of {@link #mPatternTyped}, so the
+     * whole path can be drawn with single {@link Canvas#drawLines(float[], int, int, Paint)} call.
+     * Only the segment to {@link #mPatternPathEndX}, {@link #mPatternPathEndY} changes on every
+     * move.
+     */
+    @NonNull
+    private float[] mPathLines = new float[0];
+
+    /**
+     * Number of the values used in {@link #mPathLines}.
+     */
+    private int mPathLinesCount = 0;
+
     /**
      * Color of the path of the pattern.
      */
@@ -183,22 +221,16 @@ public final class PatternView extends BasePasscodeView {
     }
 
     /**
-     * Parse the theme attribute using the parse array.
+     * Apply the theme parsed from the XML attributes.
      *
-     * @param typedArray
+     * @param theme {@link PasscodeTheme} parsed from the XML.
      */
-    @SuppressWarnings("deprecation")
     @Override
-    public void parseTypeArr(@NonNull AttributeSet typedArray) {
-        final TypedArray a = getContext().getTheme()
-                .obtainStyledAttributes(typedArray, R.styleable.PatternView, 0, 0);
-
-        try { //Parse title params
-            mPatternPathColor = a.getColor(R.styleable.PatternView_patternLineColor,
-                    getResources().getColor(android.R.color.holo_green_dark));
-        } finally {
-            a.recycle();
-        }
+    public void applyTheme(@NonNull PasscodeTheme theme) {
+        mPatternPathColor = theme.getPatternLineColor();
+
+        mBoxTitle.applyTheme(theme);
+        mBoxPattern.applyTheme(theme);
     }
 
     @Override
@@ -238,20 +270,44 @@ public final class PatternView extends BasePasscodeView {
 
     private void drawPaths(Canvas canvas) {
         if (mPatternTyped.size() == 0) return;
+        final Paint pathPaint = isErrorShowing ? mErrorPathPaint : mNormalPathPaint;
 
-        int lastElementPos = mPatternTyped.size() - 1;
-        for (int i = 0; i < lastElementPos; i++) {
-            PatternCell startCell = mPatternTyped.get(i);
-            PatternCell endCell = mPatternTyped.get(i + 1);
-            canvas.drawLine(startCell.getCenterX(), startCell.getCenterY(),
-                    endCell.getCenterX(), endCell.getCenterY(),
-                    isErrorShowing ? mErrorPathPaint : mNormalPathPaint);
-        }
+        //Committed path between the cells
+        if (mPathLinesCount > 0) canvas.drawLines(mPathLines, 0, mPathLinesCount, pathPaint);
 
-        canvas.drawLine(mPatternTyped.get(lastElementPos).getCenterX(),
-                mPatternTyped.get(lastElementPos).getCenterY(),
+        //Rubber band segment to the current touch
+        final PatternCell lastCell = mPatternTyped.get(mPatternTyped.size() - 1);
+        canvas.drawLine(lastCell.getCenterX(), lastCell.getCenterY(),
                 mPatternPathEndX, mPatternPathEndY,
-                isErrorShowing ? mErrorPathPaint : mNormalPathPaint);
+                pathPaint);
+    }
+
+    /**
+     * Add the cell to the {@link #mPatternTyped} and extend the {@link #mPathLines} with the
+     * segment from the previous cell.
+     *
+     * @param cell {@link PatternCell} touched by the user.
+     */
+    private void addPatternTyped(@NonNull final PatternCell cell) {
+        if (mPatternTyped.size() > 0) {
+            if (mPathLinesCount + 4 > mPathLines.length) {
+                mPathLines = Arrays.copyOf(mPathLines,
+                        Math.max(mPathLines.length * 2, mBoxPattern.getNoOfRows() * mBoxPattern.getNoOfColumn() * 4));
+            }
+
+            final PatternCell lastCell = mPatternTyped.get(mPatternTyped.size() - 1);
+            mPathLines[mPathLinesCount++] = lastCell.getCenterX();
+            mPathLines[mPathLinesCount++] = lastCell.getCenterY();
+            mPathLines[mPathLinesCount++] = cell.getCenterX();
+            mPathLines[mPathLinesCount++] = cell.getCenterY();
+        }
+        mPatternTyped.add(cell);
+        mBoxPattern.setCellSelected(cell);
+    }
+
+    private void clearPatternTyped() {
+        mPatternTyped.clear();
+        mPathLinesCount = 0;
     }
 
     /**
@@ -260,11 +316,21 @@ public final class PatternView extends BasePasscodeView {
     @Override
     public void reset() {
         super.reset();
+        getTaskScheduler().cancel(mClearEntryTask);
         isErrorShowing = false;
-        mPatternTyped.clear();
+        clearPatternTyped();
+        mBoxPattern.reset();
         invalidate();
     }
 
+    /**
+     * @return True if no pattern is drawn and no result is being displayed.
+     */
+    @Override
+    public boolean isIdle() {
+        return super.isIdle() && !isErrorShowing && mPatternTyped.isEmpty();
+    }
+
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
@@ -290,8 +356,9 @@ public final class PatternView extends BasePasscodeView {
                 final PatternCell cellNumber = mBoxPattern.findCell(touchX, touchY);
 
                 if (cellNumber != null && !mPatternTyped.contains(cellNumber)) {
-                    mPatternTyped.add(cellNumber);
+                    addPatternTyped(cellNumber);
                     giveTactileFeedbackForKeyPress();
+                    giveAudioFeedbackForKeyPress();
                 }
 
                 mPatternPathEndX = touchX;
@@ -341,13 +408,13 @@ public final class PatternView extends BasePasscodeView {
 
     public void enableOneHandOperation(boolean isEnable) {
         mBoxPattern.setOneHandOperation(isEnable);
-        requestLayout();
+        invalidateLayout();
         invalidate();
     }
 
     public void setPatternCell(@NonNull PatternCell.Builder indicatorBuilder) {
         mBoxPattern.setCellBuilder(indicatorBuilder);
-        requestLayout();
+        invalidateLayout();
         invalidate();
     }
 
@@ -377,7 +444,7 @@ public final class PatternView extends BasePasscodeView {
 
     public void setNoOfColumn(int noOfColumn) {
         mBoxPattern.setNoOfColumn(noOfColumn);
-        requestLayout();
+        invalidateLayout();
         invalidate();
     }
 
@@ -387,7 +454,7 @@ public final class PatternView extends BasePasscodeView {
 
     public void setNoOfRows(int noOfRows) {
         mBoxPattern.setNoOfRows(noOfRows);
-        requestLayout();
+        invalidateLayout();
         invalidate();
     }
 
@@ -442,21 +509,8 @@ public final class PatternView extends BasePasscodeView {
         @NonNull
         private final PatternAuthenticator mAuthenticator;
 
-        @NonNull
-        private final Handler mHandler;
-
-        @NonNull
-        private final Runnable mResetRunnable;
-
         private PatternAuthenticatorTask(@NonNull final PatternAuthenticator authenticator) {
             mAuthenticator = authenticator;
-            mHandler = new Handler(Looper.getMainLooper());
-            mResetRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    reset();
-                }
-            };
         }
 
         @SafeVarargs
@@ -484,14 +538,13 @@ public final class PatternView extends BasePasscodeView {
             }
 
             //Reset the view.
-            mHandler.postDelayed(mResetRunnable, 350);
+            getTaskScheduler().schedule(mClearEntryTask, 350);
             mPatternAuthenticatorTask = null;
         }
 
         @Override
         protected void onCancelled() {
             super.onCancelled();
-            mHandler.removeCallbacks(mResetRunnable);
             mPatternAuthenticatorTask = null;
         }
     }
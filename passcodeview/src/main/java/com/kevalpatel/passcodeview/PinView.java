@@ -19,8 +19,6 @@ import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.os.AsyncTask;
-import android.os.Handler;
-import android.os.Looper;
 import android.support.annotation.ColorInt;
 import android.support.annotation.ColorRes;
 import android.support.annotation.NonNull;
@@ -34,8 +32,11 @@ import com.kevalpatel.passcodeview.interfaces.AuthenticationListener;
 import com.kevalpatel.passcodeview.internal.BasePasscodeView;
 import com.kevalpatel.passcodeview.internal.BoxKeypad;
 import com.kevalpatel.passcodeview.internal.BoxTitleIndicator;
+import com.kevalpatel.passcodeview.internal.PasscodeTheme;
+import com.kevalpatel.passcodeview.internal.TaskScheduler;
 import com.kevalpatel.passcodeview.keys.Key;
 import com.kevalpatel.passcodeview.keys.KeyNamesBuilder;
+import com.kevalpatel.passcodeview.keys.KeypadLayout;
 
 import java.util.ArrayList;
 
@@ -76,6 +77,25 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
      */
     private InteractiveArrayList<Integer> mPinTyped;                //PIN typed.
 
+    /**
+     * Task to clear the typed PIN after the authentication result is displayed. Unlike
+     * {@link #reset()}, this won't cancel the other pending work like the error state of the
+     * indicators.
+     */
+    @NonNull
+    private final TaskScheduler.Task mClearEntryTask = new TaskScheduler.Task() {
+        @Override
+        protected void onRun() {
+            mPinTyped.clear();
+            invalidate();
+        }
+
+        @Override
+        protected void onCancel() {
+            mPinTyped.clear();
+        }
+    };
+
     /**
      * {@link BoxKeypad} that displays the numeric keyboard to display the keys.
      */
@@ -86,12 +106,6 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
      */
     private BoxTitleIndicator mBoxIndicator;
 
-    /**
-     * {@link KeyNamesBuilder} that holds the title name of all the keys for keyboard digits.
-     */
-    @NonNull
-    private KeyNamesBuilder mKeyNamesBuilder = new KeyNamesBuilder();
-
     /**
      * {@link PinAuthenticator} that will perform the authentication for the user pin.
      *
@@ -167,14 +181,14 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
     }
 
     /**
-     * Parse the theme attribute using the parse array.
+     * Apply the theme parsed from the XML attributes.
      *
-     * @param typedArray {@link AttributeSet} received from the XML.
+     * @param theme {@link PasscodeTheme} parsed from the XML.
      */
-    @SuppressWarnings("deprecation")
     @Override
-    public void parseTypeArr(@NonNull AttributeSet typedArray) {
-        //Do nothing
+    public void applyTheme(@NonNull PasscodeTheme theme) {
+        mBoxIndicator.applyTheme(theme);
+        mBoxKeypad.applyTheme(theme);
     }
 
     @Override
@@ -205,12 +219,21 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
     @Override
     public void reset() {
         super.reset();
+        getTaskScheduler().cancel(mClearEntryTask);
         mPinTyped.clear();
         mBoxKeypad.reset();
         mBoxIndicator.reset();
         invalidate();
     }
 
+    /**
+     * @return True if no digit is typed and no result is being displayed.
+     */
+    @Override
+    public boolean isIdle() {
+        return super.isIdle() && mPinTyped.isEmpty();
+    }
+
     /**
      * Draw method of the view called every time frame refreshes.
      *
@@ -256,25 +279,27 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
     }
 
     /**
-     * Handle the newly added key digit. Append the digit to {@link #mPinTyped}.
-     * If the new digit is {@link KeyNamesBuilder#BACKSPACE_TITLE}, remove the last digit of the {@link #mPinTyped}.
+     * Handle the newly pressed key. Append the digit to {@link #mPinTyped}.
+     * If the key code is {@link KeyNamesBuilder#KEY_CODE_BACKSPACE}, remove the last digit of the {@link #mPinTyped}.
      *
-     * @param newDigit newly pressed digit
+     * @param keyCode Code of the newly pressed key. See {@link com.kevalpatel.passcodeview.keys.Key#getKeyCode()}.
      */
-    private void onKeyPressed(@Nullable String newDigit) {
-        if (newDigit == null) return;
+    private void onKeyPressed(final int keyCode) {
+        if (keyCode == KeyNamesBuilder.KEY_CODE_EMPTY) return;
 
         //Check for the state
         if (mAuthenticationListener == null) {
             throw new IllegalStateException("Set AuthenticationListener to receive callbacks.");
         }
 
-        if (newDigit.equals(KeyNamesBuilder.BACKSPACE_TITLE)) { //Back space key is pressed.
+        giveAudioFeedbackForKeyPress();
+
+        if (keyCode == KeyNamesBuilder.KEY_CODE_BACKSPACE) { //Back space key is pressed.
             if (mPinTyped.size() > 0) mPinTyped.remove(mPinTyped.size() - 1);   //Remove last digit.
         } else {
 
             //Add new digit
-            mPinTyped.add(mKeyNamesBuilder.getValueOfKey(newDigit));
+            mPinTyped.add(keyCode);
         }
 
         invalidate();
@@ -301,7 +326,8 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
     @Override
     public void onArrayValueChange(int size) {
         mBoxIndicator.onPinDigitEntered(size);
-        if (isDynamicPinEnabled()) mBoxIndicator.measureView(mRootViewBound);
+        if (isDynamicPinEnabled() && mBoxIndicator.isMeasureRequired())
+            mBoxIndicator.measureView(mRootViewBound);
     }
 
     ///////////////////////////////////////////////////////////////
@@ -338,12 +364,14 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
         mPinTyped.clear();
         for (int i : currentTypedPin) mPinTyped.add(i);
 
-        requestLayout();
+        invalidateLayout();
         invalidate();
     }
 
     public void setPinLength(final int pinLength) {
         mBoxIndicator.setPinLength(pinLength);
+        invalidateLayout();
+        invalidate();
     }
 
     public int getPinLength() {
@@ -354,6 +382,24 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
         return mBoxIndicator.getPinLength() == PinView.DYNAMIC_PIN_LENGTH;
     }
 
+    /**
+     * Limit the number of the PIN indicators. If the PIN is longer, only the indicators around the
+     * last typed digit are displayed with the count of the hidden ones. Long PINs are always
+     * windowed to the width of the view.
+     *
+     * @param maxVisibleIndicators Maximum number of the indicators. Zero to display as many as fit
+     *                             in the view.
+     */
+    public void setMaxVisibleIndicators(final int maxVisibleIndicators) {
+        mBoxIndicator.setMaxVisibleIndicators(maxVisibleIndicators);
+        invalidateLayout();
+        invalidate();
+    }
+
+    public int getMaxVisibleIndicators() {
+        return mBoxIndicator.getMaxVisibleIndicators();
+    }
+
     //********************** For keyboard box
 
     /**
@@ -372,7 +418,7 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
      */
     public void enableOneHandOperation(final boolean isEnable) {
         mBoxKeypad.setOneHandOperation(isEnable);
-        requestLayout();
+        invalidateLayout();
         invalidate();
     }
 
@@ -384,7 +430,7 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
      */
     public void setKey(@NonNull final Key.Builder keyBuilder) {
         mBoxKeypad.setKeyBuilder(keyBuilder);
-        requestLayout();
+        invalidateLayout();
         invalidate();
     }
 
@@ -395,12 +441,30 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
      * @param keyNamesBuilder {@link KeyNamesBuilder}
      */
     public void setKeyNames(@NonNull final KeyNamesBuilder keyNamesBuilder) {
-        mKeyNamesBuilder = keyNamesBuilder;
+        //Keys are relabelled in place. The typed PIN holds the values of the digits, not the
+        //titles, so it stays valid with the new names.
         mBoxKeypad.setKeyNames(keyNamesBuilder);
+        invalidate();
+    }
 
-        mPinTyped.clear(); //Need to clear the typed pin, so that change in localization don't affect the pin matching process.
+    /**
+     * @return {@link KeypadLayout} with the arrangement of the keys.
+     */
+    @NonNull
+    public KeypadLayout getKeypadLayout() {
+        return mBoxKeypad.getKeypadLayout();
+    }
 
-        requestLayout();
+    /**
+     * Set the arrangement of the keys in the keypad. Use {@link KeypadLayout#randomized()} to shuffle
+     * the digits or {@link KeypadLayout.Builder} for the custom grids. The layout can be switched at any
+     * time. The typed PIN holds the values of the digits, so it stays valid with the new layout.
+     *
+     * @param keypadLayout {@link KeypadLayout}
+     */
+    public void setKeypadLayout(@NonNull final KeypadLayout keypadLayout) {
+        mBoxKeypad.setKeypadLayout(keypadLayout);
+        invalidateLayout();
         invalidate();
     }
 
@@ -467,7 +531,7 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
      */
     public void setIndicator(@NonNull final Indicator.Builder indicatorBuilder) {
         mBoxIndicator.setIndicatorBuilder(indicatorBuilder);
-        requestLayout();
+        invalidateLayout();
         invalidate();
     }
 
@@ -484,21 +548,8 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
         @NonNull
         private final PinAuthenticator mAuthenticator;
 
-        @NonNull
-        private final Handler mHandler;
-
-        @NonNull
-        private final Runnable mResetRunnable;
-
         private PinAuthenticatorTask(@NonNull final PinAuthenticator authenticator) {
             mAuthenticator = authenticator;
-            mHandler = new Handler(Looper.getMainLooper());
-            mResetRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    reset();
-                }
-            };
         }
 
         @SafeVarargs
@@ -524,14 +575,13 @@ public final class PinView extends BasePasscodeView implements InteractiveArrayL
             }
 
             //Reset the view.
-            mHandler.postDelayed(mResetRunnable, 350);
+            getTaskScheduler().schedule(mClearEntryTask, 350);
             mPinAuthenticatorTask = null;
         }
 
         @Override
         protected void onCancelled() {
             super.onCancelled();
-            mHandler.removeCallbacks(mResetRunnable);
             mPinAuthenticatorTask = null;
         }
     }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.biometric;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Source of the biometric authentication results for the fingerprint box of the
+ * {@link com.kevalpatel.passcodeview.PinView} and {@link com.kevalpatel.passcodeview.PatternView}.
+ * By default the views use the {@link android.hardware.fingerprint.FingerprintManager}. Application
+ * can replace it with any other implementation (e.g. BiometricPrompt, vendor SDK or
+ * {@link FakeBiometricProvider} in the tests) using
+ * {@link com.kevalpatel.passcodeview.internal.BasePasscodeView#setBiometricProvider(BiometricProvider)}.
+ *
+ * @author agent
+ */
+public interface BiometricProvider {
+
+    /**
+     * A recoverable error has been encountered during authentication. (e.g. "Sensor dirty, please
+     * clean it.") The scanning session is still running.
+     */
+    int RECOVERABLE_ERROR = 843;
+
+    /**
+     * An unrecoverable error has been encountered and the session is complete. No further callbacks
+     * will be made until the authentication is started again.
+     */
+    int NON_RECOVERABLE_ERROR = 566;
+
+    /**
+     * The biometric is valid but not recognized. The scanning session is still running.
+     */
+    int CANNOT_RECOGNIZE_ERROR = 456;
+
+    /**
+     * @return True if the device can authenticate the user using this provider. (e.g. The hardware
+     * is available and user has enrolled at least one fingerprint.)
+     */
+    boolean isAvailable();
+
+    /**
+     * Start listening for the biometric. If the provider is already scanning, this call should be
+     * ignored.
+     *
+     * @param callback {@link Callback} to notify the authentication results on the main thread.
+     */
+    @MainThread
+    void startAuth(@NonNull Callback callback);
+
+    /**
+     * Stop listening for the biometric and release the sensor.
+     */
+    @MainThread
+    void stopAuth();
+
+    /**
+     * @return True if the provider is currently listening for the biometric.
+     */
+    boolean isScanning();
+
+    /**
+     * Callback to notify the authentication results.
+     */
+    interface Callback {
+
+        /**
+         * The user is authenticated successfully. The scanning session is complete.
+         */
+        @MainThread
+        void onBiometricAuthSuccess();
+
+        /**
+         * The authentication failed or any error occurred while scanning.
+         *
+         * @param errorCode    One of {@link #RECOVERABLE_ERROR}, {@link #NON_RECOVERABLE_ERROR} or
+         *                     {@link #CANNOT_RECOGNIZE_ERROR}.
+         * @param errorMessage A human-readable error string that can be shown in UI.
+         */
+        @MainThread
+        void onBiometricAuthFailed(int errorCode, @Nullable String errorMessage);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.biometric;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Deterministic in-process {@link BiometricProvider}. It doesn't touch any hardware. Application
+ * scripts the results (success or failures) and the latency of each of them. Once the
+ * authentication starts, the scripted results are delivered one by one on the main looper after
+ * their latency.
+ * <p>
+ * This is a helper for the tests of the application. Plug it in using
+ * {@link com.kevalpatel.passcodeview.internal.BasePasscodeView#setBiometricProvider(BiometricProvider)}
+ * to drive the fingerprint box (success, failure and the delay between them) in the UI or
+ * Robolectric tests without the sensor. Don't use it in production.
+ *
+ * @author agent
+ */
+public final class FakeBiometricProvider implements BiometricProvider {
+
+    /**
+     * {@link Handler} to deliver the results on the main thread.
+     */
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Queue of the scripted results, in the order of delivery.
+     */
+    @NonNull
+    private final ArrayDeque<ScriptedResult> mScript = new ArrayDeque<>();
+
+    /**
+     * {@link Runnable} that delivers the head of the {@link #mScript}.
+     */
+    @NonNull
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatchNext();
+        }
+    };
+
+    /**
+     * True if the provider should report the biometric hardware as available.
+     */
+    private boolean mIsAvailable = true;
+
+    /**
+     * True if the provider is listening.
+     */
+    private boolean isScanning;
+
+    /**
+     * {@link Callback} of the current session.
+     */
+    @Nullable
+    private Callback mCallback;
+
+    /**
+     * Number of time {@link #startAuth(Callback)} actually started a new session.
+     */
+    private int mSessionCount;
+
+    /**
+     * {@link SystemClock#uptimeMillis()} when the last result was delivered. -1 if nothing is
+     * delivered yet.
+     */
+    private long mLastDeliveryTime = -1;
+
+    /**
+     * Set weather the provider should report the hardware as available or not. Default is true.
+     *
+     * @param isAvailable True to report the biometric hardware as available.
+     */
+    @NonNull
+    public FakeBiometricProvider setAvailable(final boolean isAvailable) {
+        mIsAvailable = isAvailable;
+        return this;
+    }
+
+    /**
+     * Script the successful authentication.
+     *
+     * @param latencyMillis Time in milliseconds to wait before delivering the result.
+     */
+    @NonNull
+    public FakeBiometricProvider enqueueSuccess(final long latencyMillis) {
+        return enqueue(new ScriptedResult(true, 0, null, latencyMillis));
+    }
+
+    /**
+     * Script the authentication failure.
+     *
+     * @param errorCode     One of {@link #RECOVERABLE_ERROR}, {@link #NON_RECOVERABLE_ERROR} or
+     *                      {@link #CANNOT_RECOGNIZE_ERROR}.
+     * @param errorMessage  Error message to deliver.
+     * @param latencyMillis Time in milliseconds to wait before delivering the result.
+     */
+    @NonNull
+    public FakeBiometricProvider enqueueFailure(final int errorCode,
+                                                @Nullable final String errorMessage,
+                                                final long latencyMillis) {
+        return enqueue(new ScriptedResult(false, errorCode, errorMessage, latencyMillis));
+    }
+
+    /**
+     * @return Number of the scripted results which are not delivered yet.
+     */
+    public int getPendingCount() {
+        return mScript.size();
+    }
+
+    /**
+     * @return Number of scanning sessions started on this provider.
+     */
+    public int getSessionCount() {
+        return mSessionCount;
+    }
+
+    /**
+     * @return {@link SystemClock#uptimeMillis()} when the last result was delivered or -1.
+     */
+    public long getLastDeliveryTime() {
+        return mLastDeliveryTime;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return mIsAvailable;
+    }
+
+    @Override
+    public void startAuth(@NonNull final Callback callback) {
+        if (isScanning) return;
+
+        mCallback = callback;
+        isScanning = true;
+        mSessionCount++;
+        scheduleNext();
+    }
+
+    @Override
+    public void stopAuth() {
+        mHandler.removeCallbacks(mDispatchRunnable);
+        isScanning = false;
+        mCallback = null;
+    }
+
+    @Override
+    public boolean isScanning() {
+        return isScanning;
+    }
+
+    @NonNull
+    private FakeBiometricProvider enqueue(@NonNull final ScriptedResult result) {
+        mScript.add(result);
+
+        //Deliver immediately if the session is waiting for the results.
+        if (isScanning && mScript.size() == 1) scheduleNext();
+        return this;
+    }
+
+    private void scheduleNext() {
+        final ScriptedResult next = mScript.peek();
+        if (next == null) return;
+        mHandler.postDelayed(mDispatchRunnable, next.mLatency);
+    }
+
+    private void dispatchNext() {
+        final ScriptedResult result = mScript.poll();
+        final Callback callback = mCallback;
+        if (result == null || callback == null) return;
+
+        mLastDeliveryTime = SystemClock.uptimeMillis();
+        if (result.isSuccess) {
+            //Session is complete.
+            stopAuth();
+            callback.onBiometricAuthSuccess();
+        } else {
+            if (result.mErrorCode == NON_RECOVERABLE_ERROR) stopAuth();
+            callback.onBiometricAuthFailed(result.mErrorCode, result.mErrorMessage);
+            if (isScanning) scheduleNext();
+        }
+    }
+
+    /**
+     * Single result in the script.
+     */
+    private static final class ScriptedResult {
+        private final boolean isSuccess;
+        private final int mErrorCode;
+        @Nullable
+        private final String mErrorMessage;
+        private final long mLatency;
+
+        private ScriptedResult(final boolean isSuccess,
+                               final int errorCode,
+                               @Nullable final String errorMessage,
+                               final long latency) {
+            this.isSuccess = isSuccess;
+            mErrorCode = errorCode;
+            mErrorMessage = errorMessage;
+            mLatency = latency;
+        }
+    }
+}
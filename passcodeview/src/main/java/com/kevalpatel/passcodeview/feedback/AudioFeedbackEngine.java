@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.feedback;
+
+import android.content.Context;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.view.View;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Engine to play the audible click when user presses any key or touches the new pattern cell. The
+ * default implementation is {@link DefaultAudioFeedbackEngine}. Application can replace it using
+ * {@link com.kevalpatel.passcodeview.internal.BasePasscodeView#setAudioFeedbackEngine(AudioFeedbackEngine)}.
+ * <p>
+ * The view calls {@link #prepare(Context)} when it gets attached to the window and
+ * {@link #release()} when it gets detached. {@link #onKeyPressed(View)} is called on every key
+ * press, so implementations should load the sounds in {@link #prepare(Context)} and should not
+ * allocate anything while playing.
+ *
+ * @author agent
+ */
+public interface AudioFeedbackEngine {
+
+    /**
+     * Load the sounds. This is called on the main thread, so implementations should do the actual
+     * loading on the background thread.
+     *
+     * @param context {@link Context} of the view.
+     */
+    @MainThread
+    void prepare(@NonNull Context context);
+
+    /**
+     * Play the click sound when user presses any key or touches the new pattern cell. If the sounds
+     * are not loaded yet, this should do nothing.
+     *
+     * @param view View on which the key is pressed.
+     */
+    @MainThread
+    void onKeyPressed(@NonNull View view);
+
+    /**
+     * Release all the sounds loaded in {@link #prepare(Context)}.
+     */
+    @MainThread
+    void release();
+}
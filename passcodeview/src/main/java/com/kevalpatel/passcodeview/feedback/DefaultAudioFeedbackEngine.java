@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.feedback;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.AudioManager;
+import android.media.SoundPool;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RawRes;
+import android.util.Log;
+import android.view.View;
+
+import com.kevalpatel.passcodeview.R;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Default {@link AudioFeedbackEngine}. This preloads the click sound into a {@link SoundPool} on the
+ * background thread, so that playing it on the key press doesn't hit the disk or the decoder and
+ * doesn't allocate anything.
+ *
+ * @author agent
+ */
+public final class DefaultAudioFeedbackEngine implements AudioFeedbackEngine {
+    /**
+     * Sound id to indicate that the sound is not loaded yet.
+     */
+    private static final int NO_SOUND = 0;
+
+    /**
+     * Raw resource of the click sound.
+     */
+    @RawRes
+    private final int mClickSoundRes;
+
+    /**
+     * Volume of the click sound between 0 and 1.
+     */
+    private final float mVolume;
+
+    /**
+     * Lock to guard {@link #mGeneration} and {@link #mSoundPool} between the loader thread and the
+     * main thread.
+     */
+    private final Object mLock = new Object();
+
+    /**
+     * Incremented every time the engine is released. Loader started for older generation will
+     * release its {@link SoundPool} instead of publishing it.
+     */
+    private int mGeneration = 0;
+
+    /**
+     * True if {@link #prepare(Context)} is called and {@link #release()} isn't called after that.
+     */
+    private boolean isPrepared = false;
+
+    @Nullable
+    private volatile SoundPool mSoundPool;
+
+    private volatile int mClickSoundId = NO_SOUND;
+
+    /**
+     * Public constructor. This will use the default click sound of the library.
+     */
+    public DefaultAudioFeedbackEngine() {
+        this(R.raw.lib_key_click, 1f);
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param clickSoundRes Raw resource of the sound to play on every key press. Keep it short and
+     *                      without the leading silence.
+     * @param volume        Volume between 0 and 1.
+     */
+    public DefaultAudioFeedbackEngine(@RawRes final int clickSoundRes, final float volume) {
+        mClickSoundRes = clickSoundRes;
+        mVolume = Math.max(0f, Math.min(1f, volume));
+    }
+
+    @Override
+    public void prepare(@NonNull final Context context) {
+        final int generation;
+        synchronized (mLock) {
+            if (isPrepared) return;
+            isPrepared = true;
+            generation = mGeneration;
+        }
+
+        //Don't hold the activity context in the background thread.
+        final Context appContext = context.getApplicationContext();
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                loadSoundPool(appContext, generation);
+            }
+        });
+    }
+
+    /**
+     * Create the {@link SoundPool} and load the click sound. This runs on the background thread.
+     */
+    private void loadSoundPool(@NonNull final Context context, final int generation) {
+        final SoundPool soundPool = createSoundPool();
+        soundPool.setOnLoadCompleteListener(new SoundPool.OnLoadCompleteListener() {
+            @Override
+            public void onLoadComplete(final SoundPool pool, final int sampleId, final int status) {
+                if (status != 0) {
+                    Log.w("PasscodeView", "Cannot load the key click sound.");
+                    return;
+                }
+
+                synchronized (mLock) {
+                    if (generation == mGeneration) mClickSoundId = sampleId;
+                }
+            }
+        });
+
+        synchronized (mLock) {
+            if (generation != mGeneration) {
+                //Released before the loading completed.
+                soundPool.release();
+                return;
+            }
+            mSoundPool = soundPool;
+        }
+
+        soundPool.load(context, mClickSoundRes, 1);
+    }
+
+    @SuppressWarnings("deprecation")
+    @NonNull
+    private static SoundPool createSoundPool() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return new SoundPool.Builder()
+                    .setMaxStreams(2)
+                    .setAudioAttributes(new AudioAttributes.Builder()
+                            .setUsage(AudioAttributes.USAGE_ASSISTANCE_SONIFICATION)
+                            .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                            .build())
+                    .build();
+        } else {
+            return new SoundPool(2, AudioManager.STREAM_SYSTEM, 0);
+        }
+    }
+
+    @Override
+    public void onKeyPressed(@NonNull final View view) {
+        final SoundPool soundPool = mSoundPool;
+        final int soundId = mClickSoundId;
+        if (soundPool == null || soundId == NO_SOUND) return;
+
+        soundPool.play(soundId, mVolume, mVolume, 1, 0, 1f);
+    }
+
+    @Override
+    public void release() {
+        final SoundPool soundPool;
+        synchronized (mLock) {
+            if (!isPrepared) return;
+            isPrepared = false;
+            mGeneration++;
+
+            soundPool = mSoundPool;
+            mSoundPool = null;
+            mClickSoundId = NO_SOUND;
+        }
+
+        if (soundPool != null) soundPool.release();
+    }
+}
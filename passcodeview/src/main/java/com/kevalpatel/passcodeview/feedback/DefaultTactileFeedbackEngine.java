@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.feedback;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.os.VibrationEffect;
+import android.os.Vibrator;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.view.HapticFeedbackConstants;
+import android.view.View;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Default {@link TactileFeedbackEngine}. This resolves the {@link Vibrator} only once and builds all
+ * the vibration patterns ahead of time. For the key press, it uses the
+ * {@link View#performHapticFeedback(int)}, so the system touch feedback setting is respected. It falls
+ * back to the {@link Vibrator} only if the view isn't attached to the window.
+ *
+ * @author agent
+ */
+public final class DefaultTactileFeedbackEngine implements TactileFeedbackEngine {
+    /**
+     * Vibration duration in milliseconds when any key is pressed.
+     */
+    private static final long KEY_PRESS_DURATION = 50;
+
+    /**
+     * Vibration duration in milliseconds when the authentication fails.
+     */
+    private static final long AUTH_FAIL_DURATION = 350;
+
+    /**
+     * Vibrate for 100ms at difference of 50ms for two times when the authentication is successful.
+     */
+    private static final long[] AUTH_SUCCESS_PATTERN = new long[]{50, 100, 50, 100};
+
+    /**
+     * {@link Vibrator} of the device. This will be null if the device doesn't have the vibrator.
+     */
+    @Nullable
+    private final Vibrator mVibrator;
+
+    /**
+     * Pre-built {@link VibrationEffect}s. These are null below API 26.
+     */
+    @TargetApi(Build.VERSION_CODES.O)
+    @Nullable
+    private final VibrationEffect mKeyPressEffect;
+    @TargetApi(Build.VERSION_CODES.O)
+    @Nullable
+    private final VibrationEffect mAuthSuccessEffect;
+    @TargetApi(Build.VERSION_CODES.O)
+    @Nullable
+    private final VibrationEffect mAuthFailEffect;
+
+    /**
+     * Public constructor.
+     *
+     * @param context {@link Context} of the caller.
+     */
+    public DefaultTactileFeedbackEngine(@NonNull final Context context) {
+        final Vibrator vibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
+
+        if (vibrator == null) {
+            Log.w("PasscodeView", "Vibrator service not found.");
+            mVibrator = null;
+        } else {
+            mVibrator = vibrator.hasVibrator() ? vibrator : null;
+        }
+
+        if (mVibrator != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            mKeyPressEffect = createOneShot(KEY_PRESS_DURATION);
+            mAuthFailEffect = createOneShot(AUTH_FAIL_DURATION);
+            mAuthSuccessEffect = createWaveform(AUTH_SUCCESS_PATTERN);
+        } else {
+            mKeyPressEffect = null;
+            mAuthFailEffect = null;
+            mAuthSuccessEffect = null;
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    @NonNull
+    private static VibrationEffect createOneShot(final long duration) {
+        return VibrationEffect.createOneShot(duration, VibrationEffect.DEFAULT_AMPLITUDE);
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    @NonNull
+    private static VibrationEffect createWaveform(@NonNull final long[] pattern) {
+        return VibrationEffect.createWaveform(pattern, -1);
+    }
+
+    /**
+     * Give the haptic feedback through the view when any key is pressed. If the system refuses it
+     * (e.g. the user turned off the touch feedback), don't vibrate. The vibrator runs for 50ms only
+     * if the view isn't attached to the window.
+     */
+    @Override
+    public void onKeyPressed(@NonNull final View view) {
+        if (view.getWindowToken() != null) {
+            view.performHapticFeedback(HapticFeedbackConstants.VIRTUAL_KEY);
+            return;
+        }
+        vibrate(mKeyPressEffect, KEY_PRESS_DURATION);
+    }
+
+    /**
+     * Run the vibrator to give tactile feedback for 100ms at difference of 50ms for two times when
+     * user authentication is successful.
+     */
+    @SuppressWarnings("deprecation")
+    @Override
+    public void onAuthenticationSuccess(@NonNull final View view) {
+        if (mVibrator == null) return;
+
+        if (mAuthSuccessEffect != null) {
+            vibrate(mAuthSuccessEffect);
+        } else {
+            mVibrator.vibrate(AUTH_SUCCESS_PATTERN, -1);
+        }
+    }
+
+    /**
+     * Run the vibrator to give tactile feedback for 350ms when user authentication is failed.
+     */
+    @Override
+    public void onAuthenticationFail(@NonNull final View view) {
+        vibrate(mAuthFailEffect, AUTH_FAIL_DURATION);
+    }
+
+    @SuppressWarnings("deprecation")
+    private void vibrate(@Nullable final VibrationEffect effect, final long duration) {
+        if (mVibrator == null) return;
+
+        if (effect != null) {
+            vibrate(effect);
+        } else {
+            mVibrator.vibrate(duration);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    private void vibrate(@NonNull final VibrationEffect effect) {
+        //noinspection ConstantConditions
+        mVibrator.vibrate(effect);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.feedback;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.view.View;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Engine to give the tactile feedback when user presses any key or pattern cell or whenever the
+ * authentication completes. The default implementation is {@link DefaultTactileFeedbackEngine}.
+ * Application can replace it using
+ * {@link com.kevalpatel.passcodeview.internal.BasePasscodeView#setTactileFeedbackEngine(TactileFeedbackEngine)}.
+ * <p>
+ * These methods are called on every key press. Implementations should not look up the system
+ * services or allocate anything here.
+ *
+ * @author agent
+ */
+public interface TactileFeedbackEngine {
+
+    /**
+     * Give the feedback when user presses any key or touches the new pattern cell.
+     *
+     * @param view View on which the key is pressed.
+     */
+    @MainThread
+    void onKeyPressed(@NonNull View view);
+
+    /**
+     * Give the feedback when the user authentication is successful.
+     *
+     * @param view View which authenticated the user.
+     */
+    @MainThread
+    void onAuthenticationSuccess(@NonNull View view);
+
+    /**
+     * Give the feedback when the user authentication failed.
+     *
+     * @param view View which failed to authenticate the user.
+     */
+    @MainThread
+    void onAuthenticationFail(@NonNull View view);
+}
@@ -23,6 +23,7 @@ import android.support.annotation.ColorRes;
 import android.support.annotation.DimenRes;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.kevalpatel.passcodeview.PinView;
 import com.kevalpatel.passcodeview.R;
@@ -34,13 +35,9 @@ import com.kevalpatel.passcodeview.R;
  */
 
 public final class CircleIndicator extends Indicator {
-    private static final long ERROR_ANIMATION_DURATION = 400;
 
-    @NonNull
-    private final Rect mBounds;
     @NonNull
     private final Builder mBuilder;
-    private boolean isDisplayError;
 
     @NonNull
     private final Paint mEmptyIndicatorPaint;
@@ -53,22 +50,12 @@ public final class CircleIndicator extends Indicator {
                             @NonNull final Rect bound) {
         super(builder, bound);
 
-        mBounds = bound;
         mBuilder = builder;
 
-        //Set empty dot paint
-        mEmptyIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mEmptyIndicatorPaint.setStyle(Paint.Style.STROKE);
-        mEmptyIndicatorPaint.setColor(mBuilder.mIndicatorStrokeColor);
-        mEmptyIndicatorPaint.setStrokeWidth(mBuilder.mIndicatorStrokeWidth);
-
-        //Set filled dot paint
-        mSolidIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mSolidIndicatorPaint.setColor(mBuilder.mIndicatorFilledColor);
-
-        //Set filled dot paint
-        mErrorIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mErrorIndicatorPaint.setColor(Color.RED);
+        //Shared paints
+        mEmptyIndicatorPaint = builder.getEmptyIndicatorPaint();
+        mSolidIndicatorPaint = builder.getSolidIndicatorPaint();
+        mErrorIndicatorPaint = builder.getErrorIndicatorPaint();
     }
 
     /**
@@ -79,22 +66,34 @@ public final class CircleIndicator extends Indicator {
      */
     @Override
     public void draw(@NonNull final Canvas canvas, final boolean isFilled) {
-        canvas.drawCircle(mBounds.exactCenterX(),
-                mBounds.exactCenterY(),
+        canvas.drawCircle(getCenterX(),
+                getCenterY(),
                 mBuilder.mIndicatorRadius,
-                isDisplayError ? mErrorIndicatorPaint : isFilled ? mSolidIndicatorPaint : mEmptyIndicatorPaint);
+                isFilled ? mSolidIndicatorPaint : mEmptyIndicatorPaint);
+    }
+
+    @NonNull
+    @Override
+    public Paint getStatePaint(final byte state) {
+        switch (state) {
+            case STATE_ERROR:
+                return mErrorIndicatorPaint;
+            case STATE_FILLED:
+            case STATE_SUCCESS:
+                return mSolidIndicatorPaint;
+            default:
+                return mEmptyIndicatorPaint;
+        }
+    }
+
+    @Override
+    public float getRadius() {
+        return mBuilder.mIndicatorRadius;
     }
 
     @Override
     public void onAuthFailed() {
-        new android.os.Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                isDisplayError = false;
-                getRootView().invalidate();
-            }
-        }, ERROR_ANIMATION_DURATION);
-        isDisplayError = true;
+        //Do nothing. Error state is displayed by the indicator row.
     }
 
     @Override
@@ -112,13 +111,34 @@ public final class CircleIndicator extends Indicator {
         @Dimension
         private float mIndicatorStrokeWidth;
 
+        /**
+         * {@link Paint} of the empty indicator shared by all the indicators built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mEmptyIndicatorPaint;
+
+        /**
+         * {@link Paint} of the filled indicator shared by all the indicators built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mSolidIndicatorPaint;
+
+        /**
+         * {@link Paint} of the error indicator shared by all the indicators built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mErrorIndicatorPaint;
+
 
         public Builder(@NonNull PinView pinView) {
             super(pinView);
 
             //Set defaults
-            mIndicatorRadius = getContext().getResources().getDimension(R.dimen.lib_indicator_radius);
-            mIndicatorStrokeWidth = getContext().getResources().getDimension(R.dimen.lib_indicator_stroke_width);
+            mIndicatorRadius = getRootView().getDimens().getIndicatorRadius();
+            mIndicatorStrokeWidth = getRootView().getDimens().getIndicatorStrokeWidth();
             mIndicatorFilledColor = getContext().getResources().getColor(R.color.lib_indicator_filled_color);
             mIndicatorStrokeColor = getContext().getResources().getColor(R.color.lib_indicator_stroke_color);
         }
@@ -126,51 +146,107 @@ public final class CircleIndicator extends Indicator {
         @NonNull
         public CircleIndicator.Builder setIndicatorStrokeColor(@ColorInt final int indicatorStrokeColor) {
             mIndicatorStrokeColor = indicatorStrokeColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CircleIndicator.Builder setIndicatorStrokeColorResource(@ColorRes final int indicatorStrokeColor) {
             mIndicatorStrokeColor = getContext().getResources().getColor(indicatorStrokeColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CircleIndicator.Builder setIndicatorFilledColor(@ColorInt final int indicatorFilledColor) {
             mIndicatorFilledColor = indicatorFilledColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CircleIndicator.Builder setIndicatorFilledColorResource(@ColorRes final int indicatorFilledColor) {
             mIndicatorFilledColor = getContext().getResources().getColor(indicatorFilledColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CircleIndicator.Builder setIndicatorRadius(@DimenRes final int indicatorRadius) {
             mIndicatorRadius = getContext().getResources().getDimension(indicatorRadius);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CircleIndicator.Builder setIndicatorRadius(@Dimension final float indicatorRadius) {
             mIndicatorRadius = indicatorRadius;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CircleIndicator.Builder setIndicatorStrokeWidth(@DimenRes final int indicatorStrokeWidth) {
             mIndicatorStrokeWidth = getContext().getResources().getDimension(indicatorStrokeWidth);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CircleIndicator.Builder setIndicatorStrokeWidth(@Dimension final float indicatorStrokeWidth) {
             mIndicatorStrokeWidth = indicatorStrokeWidth;
+            clearPaints();
             return this;
         }
 
+        /**
+         * @return {@link Paint} of the empty indicator shared by all the indicators built by this builder.
+         */
+        @NonNull
+        Paint getEmptyIndicatorPaint() {
+            if (mEmptyIndicatorPaint == null) {
+                mEmptyIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mEmptyIndicatorPaint.setStyle(Paint.Style.STROKE);
+                mEmptyIndicatorPaint.setColor(mIndicatorStrokeColor);
+                mEmptyIndicatorPaint.setStrokeWidth(mIndicatorStrokeWidth);
+            }
+            return mEmptyIndicatorPaint;
+        }
+
+        /**
+         * @return {@link Paint} of the filled indicator shared by all the indicators built by this builder.
+         */
+        @NonNull
+        Paint getSolidIndicatorPaint() {
+            if (mSolidIndicatorPaint == null) {
+                mSolidIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mSolidIndicatorPaint.setColor(mIndicatorFilledColor);
+            }
+            return mSolidIndicatorPaint;
+        }
+
+        /**
+         * @return {@link Paint} of the error indicator shared by all the indicators built by this builder.
+         */
+        @NonNull
+        Paint getErrorIndicatorPaint() {
+            if (mErrorIndicatorPaint == null) {
+                mErrorIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mErrorIndicatorPaint.setColor(Color.RED);
+            }
+            return mErrorIndicatorPaint;
+        }
+
+        /**
+         * Clear the shared paints. Those will be created again with new parameters while building
+         * the next indicator. Already built ones will keep the old paints.
+         */
+        private void clearPaints() {
+            mEmptyIndicatorPaint = null;
+            mSolidIndicatorPaint = null;
+            mErrorIndicatorPaint = null;
+        }
+
         @Dimension
         @Override
         public float getIndicatorWidth() {
@@ -23,6 +23,7 @@ import android.support.annotation.ColorRes;
 import android.support.annotation.DimenRes;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.kevalpatel.passcodeview.PinView;
 import com.kevalpatel.passcodeview.R;
@@ -34,7 +35,6 @@ import com.kevalpatel.passcodeview.R;
  */
 
 public final class DotIndicator extends Indicator {
-    private static final long ERROR_ANIMATION_DURATION = 400;
     @NonNull
     private final Paint mEmptyIndicatorPaint;             //Empty indicator color
 
@@ -44,24 +44,16 @@ public final class DotIndicator extends Indicator {
     private final Paint mSolidIndicatorPaint;             //Solid indicator color
     @NonNull
     private final Paint mErrorIndicatorPaint;             //Error indicator color
-    private boolean isDisplayError;
 
     private DotIndicator(@NonNull final DotIndicator.Builder builder,
                          @NonNull final Rect bound) {
         super(builder, bound);
         mBuilder = builder;
 
-        //Set empty dot paint
-        mEmptyIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mEmptyIndicatorPaint.setColor(builder.mEmptyIndicatorColor);
-
-        //Set filled dot paint
-        mSolidIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mSolidIndicatorPaint.setColor(builder.mIndicatorFilledColor);
-
-        //Set filled dot paint
-        mErrorIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mErrorIndicatorPaint.setColor(Color.RED);
+        //Shared paints
+        mEmptyIndicatorPaint = builder.getEmptyIndicatorPaint();
+        mSolidIndicatorPaint = builder.getSolidIndicatorPaint();
+        mErrorIndicatorPaint = builder.getErrorIndicatorPaint();
     }
 
     /**
@@ -73,22 +65,34 @@ public final class DotIndicator extends Indicator {
     @Override
     public void draw(@NonNull final Canvas canvas,
                      final boolean isSelected) {
-        canvas.drawCircle(getBound().exactCenterX(),
-                getBound().exactCenterY(),
+        canvas.drawCircle(getCenterX(),
+                getCenterY(),
                 mBuilder.mIndicatorRadius,
-                isDisplayError ? mErrorIndicatorPaint : isSelected ? mSolidIndicatorPaint : mEmptyIndicatorPaint);
+                isSelected ? mSolidIndicatorPaint : mEmptyIndicatorPaint);
+    }
+
+    @NonNull
+    @Override
+    public Paint getStatePaint(final byte state) {
+        switch (state) {
+            case STATE_ERROR:
+                return mErrorIndicatorPaint;
+            case STATE_FILLED:
+            case STATE_SUCCESS:
+                return mSolidIndicatorPaint;
+            default:
+                return mEmptyIndicatorPaint;
+        }
+    }
+
+    @Override
+    public float getRadius() {
+        return mBuilder.mIndicatorRadius;
     }
 
     @Override
     public void onAuthFailed() {
-        new android.os.Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                isDisplayError = false;
-                getRootView().invalidate();
-            }
-        }, ERROR_ANIMATION_DURATION);
-        isDisplayError = true;
+        //Do nothing. Error state is displayed by the indicator row.
     }
 
     @Override
@@ -104,10 +108,31 @@ public final class DotIndicator extends Indicator {
         @Dimension
         private float mIndicatorRadius;
 
+        /**
+         * {@link Paint} of the empty indicator shared by all the indicators built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mEmptyIndicatorPaint;
+
+        /**
+         * {@link Paint} of the filled indicator shared by all the indicators built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mSolidIndicatorPaint;
+
+        /**
+         * {@link Paint} of the error indicator shared by all the indicators built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mErrorIndicatorPaint;
+
         public Builder(@NonNull final PinView pinView) {
             super(pinView);
 
-            mIndicatorRadius = getContext().getResources().getDimension(R.dimen.lib_indicator_radius);
+            mIndicatorRadius = getRootView().getDimens().getIndicatorRadius();
             mIndicatorFilledColor = getContext().getResources().getColor(R.color.lib_indicator_filled_color);
             mEmptyIndicatorColor = getContext().getResources().getColor(R.color.lib_indicator_stroke_color);
         }
@@ -115,39 +140,91 @@ public final class DotIndicator extends Indicator {
         @NonNull
         public DotIndicator.Builder setIndicatorEmptyColor(@ColorInt final int indicatorStrokeColor) {
             mEmptyIndicatorColor = indicatorStrokeColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public DotIndicator.Builder setIndicatorEmptyColorResource(@ColorRes final int indicatorStrokeColor) {
             mEmptyIndicatorColor = getContext().getResources().getColor(indicatorStrokeColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public DotIndicator.Builder setIndicatorFilledColor(@ColorInt final int indicatorFilledColor) {
             mIndicatorFilledColor = indicatorFilledColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public DotIndicator.Builder setIndicatorFilledColorResource(@ColorRes final int indicatorFilledColor) {
             mIndicatorFilledColor = getContext().getResources().getColor(indicatorFilledColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public DotIndicator.Builder setIndicatorRadius(@DimenRes final int indicatorRadius) {
             mIndicatorRadius = getContext().getResources().getDimension(indicatorRadius);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public DotIndicator.Builder setIndicatorRadius(@Dimension final float indicatorRadius) {
             mIndicatorRadius = indicatorRadius;
+            clearPaints();
             return this;
         }
 
+        /**
+         * @return {@link Paint} of the empty indicator shared by all the indicators built by this builder.
+         */
+        @NonNull
+        Paint getEmptyIndicatorPaint() {
+            if (mEmptyIndicatorPaint == null) {
+                mEmptyIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mEmptyIndicatorPaint.setColor(mEmptyIndicatorColor);
+            }
+            return mEmptyIndicatorPaint;
+        }
+
+        /**
+         * @return {@link Paint} of the filled indicator shared by all the indicators built by this builder.
+         */
+        @NonNull
+        Paint getSolidIndicatorPaint() {
+            if (mSolidIndicatorPaint == null) {
+                mSolidIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mSolidIndicatorPaint.setColor(mIndicatorFilledColor);
+            }
+            return mSolidIndicatorPaint;
+        }
+
+        /**
+         * @return {@link Paint} of the error indicator shared by all the indicators built by this builder.
+         */
+        @NonNull
+        Paint getErrorIndicatorPaint() {
+            if (mErrorIndicatorPaint == null) {
+                mErrorIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mErrorIndicatorPaint.setColor(Color.RED);
+            }
+            return mErrorIndicatorPaint;
+        }
+
+        /**
+         * Clear the shared paints. Those will be created again with new parameters while building
+         * the next indicator. Already built ones will keep the old paints.
+         */
+        private void clearPaints() {
+            mEmptyIndicatorPaint = null;
+            mSolidIndicatorPaint = null;
+            mErrorIndicatorPaint = null;
+        }
+
         @Dimension
         @Override
         public float getIndicatorWidth() {
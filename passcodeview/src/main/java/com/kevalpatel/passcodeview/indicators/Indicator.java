@@ -16,9 +16,11 @@ package com.kevalpatel.passcodeview.indicators;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Rect;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.kevalpatel.passcodeview.internal.BasePasscodeView;
 
@@ -28,16 +30,35 @@ import com.kevalpatel.passcodeview.internal.BasePasscodeView;
  *@author <a href="https://github.com/kevalpatel2106">kevalpatel2106</a>
  */
 public abstract class Indicator {
+
+    /**
+     * Visual states of the indicator.
+     *
+     * @see #getStatePaint(byte)
+     */
+    public static final byte STATE_EMPTY = 0;
+    public static final byte STATE_FILLED = 1;
+    public static final byte STATE_ERROR = 2;
+    public static final byte STATE_SUCCESS = 3;
+
     @NonNull
     private final Rect mBound;
 
     @NonNull
     private final Indicator.Builder mBuilder;
 
+    /**
+     * Center of the {@link #mBound}. Calculated once, so drawing doesn't touch the {@link Rect}.
+     */
+    private final float mCenterX;
+    private final float mCenterY;
+
     Indicator(@NonNull final Indicator.Builder builder,
               @NonNull final Rect bound) {
         mBound = bound;
         mBuilder = builder;
+        mCenterX = bound.exactCenterX();
+        mCenterY = bound.exactCenterY();
     }
 
     @NonNull
@@ -45,6 +66,14 @@ public abstract class Indicator {
         return mBound;
     }
 
+    protected final float getCenterX() {
+        return mCenterX;
+    }
+
+    protected final float getCenterY() {
+        return mCenterY;
+    }
+
     @NonNull
     protected final BasePasscodeView getRootView() {
         return mBuilder.getRootView();
@@ -57,6 +86,31 @@ public abstract class Indicator {
 
     public abstract void draw(@NonNull final Canvas canvas, final boolean isFilled);
 
+    /**
+     * Get the {@link Paint} for the state. The paints are shared by all the indicators built by
+     * the same builder, so the whole row can be drawn in one pass as circles of {@link #getRadius()}
+     * without asking each indicator.
+     * <p>
+     * By default this returns null and the indicator is drawn by {@link #draw(Canvas, boolean)}
+     * and gets {@link #onAuthFailed()} and {@link #onAuthSuccess()} callbacks.
+     *
+     * @param state One of {@link #STATE_EMPTY}, {@link #STATE_FILLED}, {@link #STATE_ERROR} or
+     *              {@link #STATE_SUCCESS}.
+     * @return {@link Paint} to draw the indicator in the state or null.
+     */
+    @Nullable
+    public Paint getStatePaint(final byte state) {
+        return null;
+    }
+
+    /**
+     * @return Radius of the circle if the {@link #getStatePaint(byte)} is not null.
+     */
+    @Dimension
+    public float getRadius() {
+        return 0;
+    }
+
     public abstract void onAuthFailed();
 
     public abstract void onAuthSuccess();
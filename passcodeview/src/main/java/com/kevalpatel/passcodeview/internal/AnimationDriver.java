@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Animation clock of the {@link BasePasscodeView}. All the key, indicator, cell and box effects run
+ * as {@link FrameAnimator}s on this driver. On every {@link Choreographer} frame, it advances all the
+ * running animators in one pass and invalidates the view only once. When nothing is running, it
+ * doesn't post any frame callback.
+ *
+ * @author agent
+ * @see FrameAnimator
+ */
+public final class AnimationDriver implements Choreographer.FrameCallback {
+    private static final long NANOS_PER_MILLIS = 1000000L;
+
+    /**
+     * {@link BasePasscodeView} to invalidate on each frame.
+     */
+    @NonNull
+    private final BasePasscodeView mPasscodeView;
+
+    /**
+     * List of all the running {@link FrameAnimator}.
+     */
+    @NonNull
+    private final ArrayList<FrameAnimator> mRunningAnimators = new ArrayList<>();
+
+    /**
+     * True if the frame callback is posted to the {@link Choreographer}.
+     */
+    private boolean isFrameScheduled = false;
+
+    AnimationDriver(@NonNull final BasePasscodeView passcodeView) {
+        mPasscodeView = passcodeView;
+    }
+
+    /**
+     * Start the animator. If the animator is already running, it will restart from the beginning.
+     *
+     * @param animator {@link FrameAnimator} to start.
+     */
+    @MainThread
+    public void start(@NonNull final FrameAnimator animator) {
+        if (!mRunningAnimators.contains(animator)) mRunningAnimators.add(animator);
+        animator.onStart();
+
+        mPasscodeView.invalidate();
+        scheduleFrame();
+    }
+
+    /**
+     * Cancel the animator. This will call {@link FrameAnimator#onEnd(boolean)} if the animator is running.
+     *
+     * @param animator {@link FrameAnimator} to cancel.
+     */
+    @MainThread
+    public void cancel(@NonNull final FrameAnimator animator) {
+        if (mRunningAnimators.remove(animator)) {
+            animator.finish(true);
+            mPasscodeView.invalidate();
+        }
+    }
+
+    /**
+     * Cancel all the running animators and stop the frame callbacks.
+     */
+    @MainThread
+    public void cancelAll() {
+        if (isFrameScheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            isFrameScheduled = false;
+        }
+
+        if (mRunningAnimators.isEmpty()) return;
+
+        //Finish in the reverse order. onEnd() may start the other animator.
+        for (int i = mRunningAnimators.size() - 1; i >= 0; i--) {
+            final FrameAnimator animator = mRunningAnimators.remove(i);
+            animator.finish(true);
+        }
+        mPasscodeView.invalidate();
+    }
+
+    /**
+     * @return True if any of the animator is running.
+     */
+    public boolean isAnimating() {
+        return !mRunningAnimators.isEmpty();
+    }
+
+    @Override
+    public void doFrame(final long frameTimeNanos) {
+        isFrameScheduled = false;
+
+        final long frameTimeMills = frameTimeNanos / NANOS_PER_MILLIS;
+        for (int i = mRunningAnimators.size() - 1; i >= 0; i--) {
+            //onEnd() of the finished animator may cancel the other animators.
+            if (i >= mRunningAnimators.size()) continue;
+
+            final FrameAnimator animator = mRunningAnimators.get(i);
+            if (animator.doFrame(frameTimeMills)) {
+                mRunningAnimators.remove(i);
+                animator.finish(false);
+            }
+        }
+
+        mPasscodeView.invalidate();
+        if (!mRunningAnimators.isEmpty()) scheduleFrame();
+    }
+
+    private void scheduleFrame() {
+        if (isFrameScheduled) return;
+        isFrameScheduled = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
@@ -15,12 +15,11 @@
 package com.kevalpatel.passcodeview.internal;
 
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.content.res.Configuration;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.os.Build;
-import android.os.Vibrator;
 import android.support.annotation.CallSuper;
 import android.support.annotation.ColorInt;
 import android.support.annotation.ColorRes;
@@ -30,7 +29,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.View;
 
 import com.kevalpatel.passcodeview.Constants;
@@ -38,6 +36,11 @@ import com.kevalpatel.passcodeview.PatternView;
 import com.kevalpatel.passcodeview.PinView;
 import com.kevalpatel.passcodeview.R;
 import com.kevalpatel.passcodeview.Utils;
+import com.kevalpatel.passcodeview.biometric.BiometricProvider;
+import com.kevalpatel.passcodeview.feedback.AudioFeedbackEngine;
+import com.kevalpatel.passcodeview.feedback.DefaultAudioFeedbackEngine;
+import com.kevalpatel.passcodeview.feedback.DefaultTactileFeedbackEngine;
+import com.kevalpatel.passcodeview.feedback.TactileFeedbackEngine;
 import com.kevalpatel.passcodeview.interfaces.AuthenticationListener;
 
 /**
@@ -58,6 +61,35 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
      */
     @NonNull
     private final BoxFingerprint mBoxFingerprint;
+    /**
+     * {@link AnimationDriver} that runs all the animations of this view.
+     */
+    @NonNull
+    private final AnimationDriver mAnimationDriver = new AnimationDriver(this);
+    /**
+     * {@link TaskScheduler} that runs all the delayed work of this view.
+     */
+    @NonNull
+    private final TaskScheduler mTaskScheduler = new TaskScheduler();
+    /**
+     * Library dimensions for the current configuration. This is resolved before any box gets
+     * created and refreshed in {@link #onConfigurationChanged(Configuration)}.
+     */
+    @NonNull
+    private DimensionSnapshot mDimens = DimensionSnapshot.obtain(getResources());
+    /**
+     * True if anything the layout depends on changed after the last measure pass.
+     *
+     * @see #invalidateLayout()
+     */
+    private boolean mIsLayoutDirty = true;
+    /**
+     * Incremented whenever the layout gets invalidated. Boxes drop the geometry cached for the
+     * older generations.
+     *
+     * @see LayoutCache
+     */
+    private int mLayoutGeneration = 0;
     /**
      * Bounds of the divider between the title and the keypad or the pattern box.
      */
@@ -87,6 +119,23 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
      * Boolean to set true of the tactile feedback on the key is press is enabled or not?
      */
     private boolean mIsTactileFeedbackEnabled = true;
+    /**
+     * {@link TactileFeedbackEngine} to vibrate the device.
+     *
+     * @see DefaultTactileFeedbackEngine
+     */
+    private TactileFeedbackEngine mTactileFeedbackEngine;
+    /**
+     * Boolean to set true if the audible click on the key press is enabled or not?
+     */
+    private boolean mIsAudioFeedbackEnabled = false;
+    /**
+     * {@link AudioFeedbackEngine} to play the key click sound. This will be prepared only while the
+     * view is attached and {@link #mIsAudioFeedbackEnabled} is true.
+     *
+     * @see DefaultAudioFeedbackEngine
+     */
+    private AudioFeedbackEngine mAudioFeedbackEngine;
 
     ///////////////////////////////////////////////////////////////
     //                  CONSTRUCTORS
@@ -131,15 +180,15 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
     ///////////////////////////////////////////////////////////////
 
     /**
-     * Initialize the view. This will set {@link BoxFingerprint} and parse {@link TypedArray} to
-     * read all the parameters added in xml file.
+     * Initialize the view. This will set {@link BoxFingerprint} and obtain the {@link PasscodeTheme}
+     * with all the parameters added in xml file.
      * <p>
      * If you wan to enable customized parameters, override {@link #init()}  method and initialize the
-     * parameters. This method will call before parsing the {@link TypedArray}.
+     * parameters. This method will call before applying the {@link PasscodeTheme}.
      * <p>
-     * If you want to parse view specific XML parameters, override {@link #parseTypeArr(AttributeSet)}
-     * and parse the {@link TypedArray}. This method will only call if there is any custom parameters
-     * defined in XML.
+     * If you want to apply view specific XML parameters, override {@link #applyTheme(PasscodeTheme)}
+     * and read them from the {@link PasscodeTheme}. This method will only call if there is any custom
+     * parameters defined in XML.
      * <p>
      * You can set default theme parameters by overriding {@link #setDefaults()} if there are no
      * parameters defined in XML layout.
@@ -147,25 +196,23 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
      * @param attrs {@link AttributeSet}
      */
     private void init(@Nullable final AttributeSet attrs) {
+        mTactileFeedbackEngine = new DefaultTactileFeedbackEngine(getContext());
+        mAudioFeedbackEngine = new DefaultAudioFeedbackEngine();
         mBoxFingerprint.init();
         init(); //Call init for the concrete class
 
         if (attrs != null) {    //Parse all the params from the arguments.
-            TypedArray a = getContext().getTheme().obtainStyledAttributes(attrs, R.styleable.BasePasscodeView, 0, 0);
-            try {
-                mIsTactileFeedbackEnabled = a.getBoolean(R.styleable.BasePasscodeView_giveTactileFeedback, true);
+            final PasscodeTheme theme = PasscodeTheme.obtain(getContext(), attrs);
+            mIsTactileFeedbackEnabled = theme.isTactileFeedbackEnabled();
+            mIsAudioFeedbackEnabled = theme.isAudioFeedbackEnabled();
 
-                //Parse divider params
-                mDividerColor = a.getColor(R.styleable.BasePasscodeView_dividerColor,
-                        Utils.getColorCompat(getContext(), R.color.lib_divider_color));
+            //Divider params
+            mDividerColor = theme.getDividerColor();
 
-                //Fet fingerprint params
-                mBoxFingerprint.parseTypeArr(attrs);
+            //Fingerprint params
+            mBoxFingerprint.applyTheme(theme);
 
-                parseTypeArr(attrs);
-            } finally {
-                a.recycle();
-            }
+            applyTheme(theme);
         } else {        //Nothing's provided in XML. Set default for now.
             setDividerColor(Utils.getColorCompat(getContext(), R.color.lib_divider_color));
 
@@ -198,6 +245,16 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
         int viewHeight = MeasureSpec.getSize(heightMeasureSpec);
         int viewWidth = MeasureSpec.getSize(widthMeasureSpec);
 
+        //Nothing changed after the last pass. Keep the current layout.
+        if (!mIsLayoutDirty
+                && viewWidth == mRootViewBound.width()
+                && viewHeight == mRootViewBound.height()) {
+            setMeasuredDimension(widthMeasureSpec, heightMeasureSpec);
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+        mIsLayoutDirty = false;
+
         mRootViewBound.left = 0;
         mRootViewBound.right = mRootViewBound.left + viewWidth;
         mRootViewBound.top = 0;
@@ -215,19 +272,37 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
     }
 
+    /**
+     * Mark the layout dirty and request the new layout. Call this instead of {@link #requestLayout()}
+     * whenever anything the geometry of the boxes depends on changes (builders, key names, one hand
+     * operation, fingerprint visibility...). Plain {@link #requestLayout()} won't measure the view
+     * again if the size didn't change.
+     */
+    protected final void invalidateLayout() {
+        mIsLayoutDirty = true;
+        mLayoutGeneration++;
+        requestLayout();
+    }
+
+    /**
+     * @return Number of times the layout got invalidated.
+     * @see LayoutCache
+     */
+    int getLayoutGeneration() {
+        return mLayoutGeneration;
+    }
+
     /**
      * Measure horizontal divider bounds.
      * Don't change until you know what you are doing. :-)
      */
     private void measureDivider() {
-        mDividerBound.left = (int) (mRootViewBound.left
-                + getResources().getDimension(R.dimen.lib_divider_horizontal_margin));
-        mDividerBound.right = (int) (mRootViewBound.right
-                - getResources().getDimension(R.dimen.lib_divider_horizontal_margin));
+        mDividerBound.left = (int) (mRootViewBound.left + mDimens.getDividerHorizontalMargin());
+        mDividerBound.right = (int) (mRootViewBound.right - mDimens.getDividerHorizontalMargin());
         mDividerBound.top = (int) (mRootViewBound.top + (mRootViewBound.height() * Constants.KEY_BOARD_TOP_WEIGHT)
-                - getResources().getDimension(R.dimen.lib_divider_vertical_margin));
+                - mDimens.getDividerVerticalMargin());
         mDividerBound.bottom = (int) (mRootViewBound.top + (mRootViewBound.height() * Constants.KEY_BOARD_TOP_WEIGHT)
-                - getResources().getDimension(R.dimen.lib_divider_vertical_margin));
+                - mDimens.getDividerVerticalMargin());
     }
 
     ///////////////////////////////////////////////////////////////
@@ -260,12 +335,45 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
                 mDividerPaint);
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        //Start scanning fingerprint
+        mBoxFingerprint.startAuth();
+
+        //Load the key click sounds
+        if (mIsAudioFeedbackEnabled) mAudioFeedbackEngine.prepare(getContext());
+    }
+
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
 
         //Stop scanning fingerprint
-        mBoxFingerprint.reset();
+        mBoxFingerprint.stopAuth();
+
+        //Stop all the animations and the pending work
+        mAnimationDriver.cancelAll();
+        mTaskScheduler.cancelAll();
+
+        //Release the key click sounds
+        mAudioFeedbackEngine.release();
+    }
+
+    @Override
+    protected void onConfigurationChanged(final Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+
+        //Dimensions may depend on the orientation, density or font scale.
+        final DimensionSnapshot dimens = DimensionSnapshot.obtain(getResources());
+        if (dimens != mDimens) {
+            mDimens = dimens;
+
+            //Title text sizes come from the dimensions.
+            preparePaint();
+            invalidateLayout();
+        }
     }
 
     @Override
@@ -284,6 +392,20 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
         invalidate();
     }
 
+    /**
+     * @return True if the view isn't displaying any entry, result, error or animation. Subclasses
+     * should also check that nothing is typed.
+     */
+    @CallSuper
+    public boolean isIdle() {
+        return !mAnimationDriver.isAnimating() && !mTaskScheduler.hasPendingTasks();
+    }
+
+    /**
+     * Reset the entry state of the view. Each box cancels its own pending work on the
+     * {@link TaskScheduler}. This won't stop the fingerprint scanning or drop the pending fingerprint
+     * success. The fingerprint session lives as long as the view is attached to the window.
+     */
     @Override
     @CallSuper
     public void reset() {
@@ -292,51 +414,35 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
 
 
     /**
-     * Run the vibrator to give tactile feedback for 350ms when user authentication is successful.
+     * Give tactile feedback when user authentication is failed.
      */
     private void giveTactileFeedbackForAuthFail() {
         if (!mIsTactileFeedbackEnabled) return;
-
-        final Vibrator v = (Vibrator) getContext().getSystemService(Context.VIBRATOR_SERVICE);
-        if (v == null) {
-            Log.w("PasscodeView", "Vibrator service not found.");
-            return;
-        }
-
-        if (v.hasVibrator()) v.vibrate(350);
+        mTactileFeedbackEngine.onAuthenticationFail(this);
     }
 
     /**
-     * Run the vibrator to give tactile feedback for 100ms at difference of 50ms for two times when
-     * user authentication is failed.
+     * Give tactile feedback when user authentication is successful.
      */
     private void giveTactileFeedbackForAuthSuccess() {
         if (!mIsTactileFeedbackEnabled) return;
-
-        final Vibrator v = (Vibrator) getContext().getSystemService(Context.VIBRATOR_SERVICE);
-        if (v == null) {
-            Log.w("PasscodeView", "Vibrator service not found.");
-            return;
-        }
-
-        if (v.hasVibrator()) v.vibrate(new long[]{50, 100, 50, 100}, -1);
+        mTactileFeedbackEngine.onAuthenticationSuccess(this);
     }
 
-
     /**
-     * Run the vibrator to give tactile feedback for 50ms when any key is pressed.
+     * Give tactile feedback when any key is pressed.
      */
     protected void giveTactileFeedbackForKeyPress() {
         if (!mIsTactileFeedbackEnabled) return;
+        mTactileFeedbackEngine.onKeyPressed(this);
+    }
 
-        final Vibrator v = (Vibrator) getContext().getSystemService(Context.VIBRATOR_SERVICE);
-
-        if (v == null) {
-            Log.w("PasscodeView", "Vibrator service not found.");
-            return;
-        }
-
-        if (v.hasVibrator()) v.vibrate(50);
+    /**
+     * Play the click sound when any key is pressed or new pattern cell is touched.
+     */
+    protected void giveAudioFeedbackForKeyPress() {
+        if (!mIsAudioFeedbackEnabled) return;
+        mAudioFeedbackEngine.onKeyPressed(this);
     }
 
 
@@ -344,6 +450,33 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
     //                  GETTERS/SETTERS
     ///////////////////////////////////////////////////////////////
 
+    /**
+     * Get the {@link AnimationDriver} of this view. All the key, indicator and cell animations should
+     * run on this driver, so that the view gets invalidated only once per frame.
+     */
+    @NonNull
+    public AnimationDriver getAnimationDriver() {
+        return mAnimationDriver;
+    }
+
+    /**
+     * Get the {@link TaskScheduler} of this view. All the delayed work should be scheduled on this,
+     * so that it gets cancelled when the view is detached or reset.
+     */
+    @NonNull
+    public TaskScheduler getTaskScheduler() {
+        return mTaskScheduler;
+    }
+
+    /**
+     * Get the library dimensions resolved for the current configuration. Measuring and drawing
+     * should read dimensions from here instead of the {@link android.content.res.Resources}.
+     */
+    @NonNull
+    public DimensionSnapshot getDimens() {
+        return mDimens;
+    }
+
     /**
      * Set the {@link AuthenticationListener} to get callbacks when the user is authenticated or
      * not. This is the required parameter to set.
@@ -407,6 +540,87 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
         invalidate();
     }
 
+    /**
+     * Get the {@link TactileFeedbackEngine} used to give the tactile feedback.
+     *
+     * @see DefaultTactileFeedbackEngine
+     */
+    @NonNull
+    public TactileFeedbackEngine getTactileFeedbackEngine() {
+        return mTactileFeedbackEngine;
+    }
+
+    /**
+     * Replace the {@link TactileFeedbackEngine} used to give the tactile feedback when the user
+     * presses any key or pattern cell or whenever authentication completes. By default
+     * {@link DefaultTactileFeedbackEngine} is used.
+     *
+     * @param tactileFeedbackEngine {@link TactileFeedbackEngine}
+     * @see #setTactileFeedback(boolean)
+     */
+    public void setTactileFeedbackEngine(@NonNull final TactileFeedbackEngine tactileFeedbackEngine) {
+        //noinspection ConstantConditions
+        if (tactileFeedbackEngine == null)
+            throw new IllegalArgumentException("Tactile feedback engine cannot be null.");
+        mTactileFeedbackEngine = tactileFeedbackEngine;
+    }
+
+    /**
+     * Check if the audible click is enabled when the user presses the key or touches new pattern
+     * cell.
+     *
+     * @return True if the audio feedback is enabled else false.
+     */
+    public boolean isAudioFeedbackEnable() {
+        return mIsAudioFeedbackEnabled;
+    }
+
+    /**
+     * Enable or disable the audio feedback. If the audio feedback is enabled, the view will play
+     * the click sound whenever the user presses any key or pattern cell. Sounds are loaded when the
+     * view is attached to the window and released when it is detached.
+     *
+     * @param enable True if application wants to enable audio feedback else false.
+     */
+    public void setAudioFeedback(final boolean enable) {
+        if (mIsAudioFeedbackEnabled == enable) return;
+        mIsAudioFeedbackEnabled = enable;
+
+        if (!enable) {
+            mAudioFeedbackEngine.release();
+        } else if (getWindowToken() != null) {
+            mAudioFeedbackEngine.prepare(getContext());
+        }
+    }
+
+    /**
+     * Get the {@link AudioFeedbackEngine} used to play the key click sound.
+     *
+     * @see DefaultAudioFeedbackEngine
+     */
+    @NonNull
+    public AudioFeedbackEngine getAudioFeedbackEngine() {
+        return mAudioFeedbackEngine;
+    }
+
+    /**
+     * Replace the {@link AudioFeedbackEngine} used to play the key click sound. By default
+     * {@link DefaultAudioFeedbackEngine} is used.
+     *
+     * @param audioFeedbackEngine {@link AudioFeedbackEngine}
+     * @see #setAudioFeedback(boolean)
+     */
+    public void setAudioFeedbackEngine(@NonNull final AudioFeedbackEngine audioFeedbackEngine) {
+        //noinspection ConstantConditions
+        if (audioFeedbackEngine == null)
+            throw new IllegalArgumentException("Audio feedback engine cannot be null.");
+
+        mAudioFeedbackEngine.release();
+        mAudioFeedbackEngine = audioFeedbackEngine;
+        if (mIsAudioFeedbackEnabled && getWindowToken() != null)
+            mAudioFeedbackEngine.prepare(getContext());
+    }
+
     /**
      * Check if the library enabled to fingerprint scanner to authenticate user using his/her fingerprints
      * or not. If this method returns false, it indicates that {@link PinView} or {@link PatternView}
@@ -432,7 +646,31 @@ public abstract class BasePasscodeView extends View implements PasscodeViewLifeC
      */
     public void setIsFingerPrintEnable(final boolean isEnable) {
         mBoxFingerprint.setFingerPrintEnable(isEnable);
-        requestLayout();
+        if (getWindowToken() != null) mBoxFingerprint.startAuth();
+        invalidateLayout();
+        invalidate();
+    }
+
+    /**
+     * @return {@link BiometricProvider} used by the fingerprint box to authenticate the user.
+     */
+    @NonNull
+    public BiometricProvider getBiometricProvider() {
+        return mBoxFingerprint.getBiometricProvider();
+    }
+
+    /**
+     * Replace the source of the fingerprint authentication. By default the view uses the
+     * {@link android.hardware.fingerprint.FingerprintManager}. Application can use this to plug in
+     * other biometric APIs or the {@link com.kevalpatel.passcodeview.biometric.FakeBiometricProvider}
+     * to run the view off-device.
+     *
+     * @param biometricProvider {@link BiometricProvider}
+     */
+    public void setBiometricProvider(@NonNull final BiometricProvider biometricProvider) {
+        mBoxFingerprint.setBiometricProvider(biometricProvider);
+        if (getWindowToken() != null) mBoxFingerprint.startAuth();
+        invalidateLayout();
         invalidate();
     }
 
@@ -14,28 +14,21 @@
 
 package com.kevalpatel.passcodeview.internal;
 
-import android.animation.Animator;
-import android.animation.ValueAnimator;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffColorFilter;
 import android.graphics.Rect;
-import android.graphics.drawable.Drawable;
-import android.hardware.fingerprint.FingerprintManager;
 import android.support.annotation.ColorInt;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextPaint;
-import android.util.AttributeSet;
-import android.view.animation.CycleInterpolator;
 
 import com.kevalpatel.passcodeview.Constants;
 import com.kevalpatel.passcodeview.R;
 import com.kevalpatel.passcodeview.Utils;
+import com.kevalpatel.passcodeview.biometric.BiometricProvider;
 
 /**
  * Created by Keval on 07-Apr-17.
@@ -54,7 +47,7 @@ import com.kevalpatel.passcodeview.Utils;
  * @author <a href="https://github.com/kevalpatel2106">kevalpatel2106</a>
  */
 
-final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPrintAuthCallback {
+final class BoxFingerprint extends Box implements BiometricProvider.Callback {
     private static final long ANIMATION_DURATION = 1000;    //1 second
 
     /**
@@ -69,6 +62,12 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
      */
     private Boolean isFingerPrintBoxVisible;
 
+    /**
+     * True if the application wants to enable the fingerprint authentication. The box will be
+     * visible only if this is true and the {@link #mBiometricProvider} is available.
+     */
+    private boolean mIsFingerPrintEnabled = true;
+
     /**
      * {@link Rect} bound for the {@link BoxFingerprint}. The box will be drawn between these bounds.
      * Generally the box gets displayed at the bottom of the view.
@@ -107,12 +106,80 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
     private TextPaint mStatusTextPaint;
 
     /**
-     * Helper class that handles the authentication using the fingerprint.
-     *
-     * @see FingerPrintAuthHelper
+     * Pre-tinted fingerprint icon shared through the {@link ShapeCache}. This will be loaded again
+     * only if the icon size or the status color changes.
      */
     @Nullable
-    private FingerPrintAuthHelper mFingerPrintAuthHelper;
+    private Bitmap mFingerprintIcon;
+    /**
+     * Color of the {@link #mFingerprintIcon}.
+     */
+    @ColorInt
+    private int mFingerprintIconColor;
+
+    /**
+     * {@link ShakeAnimator} for the authentication error. This animator will shake the box
+     * left-right for two times. After that the status text returns to normal after
+     * {@link #ANIMATION_DURATION}.
+     */
+    @NonNull
+    private final ShakeAnimator mErrorAnimator = new ShakeAnimator(getRootView()) {
+
+        @Override
+        protected void onEnd(final boolean isCancelled) {
+            super.onEnd(isCancelled);
+            if (isCancelled) return;
+
+            //Return back to the normal view
+            getRootView().getTaskScheduler().schedule(mResetStatusTask, ANIMATION_DURATION /* After 1 second */);
+
+            getRootView().onAuthenticationFail();
+        }
+    };
+
+    /**
+     * Task to return back to the normal status text and color.
+     */
+    @NonNull
+    private final TaskScheduler.Task mResetStatusTask = new TaskScheduler.Task() {
+        @Override
+        protected void onRun() {
+            restoreStatus();
+            getRootView().invalidate();
+        }
+
+        @Override
+        protected void onCancel() {
+            restoreStatus();
+        }
+    };
+
+    /**
+     * Task to notify the {@link BasePasscodeView} about the successful authentication after
+     * displaying the success status for {@link #ANIMATION_DURATION}.
+     */
+    @NonNull
+    private final TaskScheduler.Task mNotifySuccessTask = new TaskScheduler.Task() {
+        @Override
+        protected void onRun() {
+            mCurrentStatusText = mNormalStatusText;
+            getRootView().onAuthenticationSuccess();
+            getRootView().invalidate();
+        }
+
+        @Override
+        protected void onCancel() {
+            mCurrentStatusText = mNormalStatusText;
+        }
+    };
+
+    /**
+     * {@link BiometricProvider} that handles the authentication using the fingerprint. Default is
+     * {@link FingerPrintAuthHelper}.
+     *
+     * @see BiometricProvider
+     */
+    private BiometricProvider mBiometricProvider;
 
 
     ///////////////////////////////////////////////////////////////
@@ -138,31 +205,40 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
     @Override
     public void init() {
 
-        //Check if the finger print authentication is enabled?
-        isFingerPrintBoxVisible = Utils.isFingerPrintEnrolled(getContext());
+        //Initialize the finger print reader. Scanning will start once the view is attached.
+        mBiometricProvider = new FingerPrintAuthHelper(getContext());
 
-        //Initialize the finger print reader.
-        if (isFingerPrintBoxVisible) {
-            mFingerPrintAuthHelper = new FingerPrintAuthHelper(getContext(), this);
-            mFingerPrintAuthHelper.startAuth();
-        }
+        //Check if the finger print authentication is enabled?
+        isFingerPrintBoxVisible = mIsFingerPrintEnabled && mBiometricProvider.isAvailable();
     }
 
-    @Override
-    public void parseTypeArr(@NonNull AttributeSet typedArray) {
-        TypedArray a = getContext().getTheme().obtainStyledAttributes(typedArray,
-                R.styleable.BasePasscodeView, 0, 0);
-
-        setFingerPrintEnable(a.getBoolean(R.styleable.BasePasscodeView_fingerprintEnable, true));
-
-        setStatusText(a.hasValue(R.styleable.BasePasscodeView_fingerprintDefaultText) ?
-                a.getString(R.styleable.BasePasscodeView_fingerprintDefaultText) : null);
+    /**
+     * Start listening for the fingerprint if the fingerprint box is visible. This won't restart the
+     * session if the scanner is already listening.
+     *
+     * @see #stopAuth()
+     */
+    void startAuth() {
+        if (isFingerPrintBoxVisible && !mBiometricProvider.isScanning())
+            mBiometricProvider.startAuth(this);
+    }
 
-        setStatusTextColor(a.getColor(R.styleable.BasePasscodeView_fingerprintTextColor,
-                Utils.getColorCompat(getContext(), R.color.lib_key_default_color)));
+    /**
+     * Stop listening for the fingerprint and release the sensor. This is the only place where the
+     * fingerprint session gets cancelled. Resetting the view won't stop the scanning.
+     *
+     * @see #startAuth()
+     */
+    void stopAuth() {
+        if (mBiometricProvider.isScanning()) mBiometricProvider.stopAuth();
+    }
 
-        setStatusTextSize(a.getDimension(R.styleable.BasePasscodeView_fingerprintTextSize,
-                (int) getContext().getResources().getDimension(R.dimen.lib_fingerprint_status_text_size)));
+    @Override
+    public void applyTheme(@NonNull final PasscodeTheme theme) {
+        setFingerPrintEnable(theme.isFingerprintEnabled());
+        setStatusText(theme.getFingerprintDefaultText());
+        setStatusTextColor(theme.getFingerprintTextColor());
+        setStatusTextSize(theme.getFingerprintTextSize());
     }
 
     /**
@@ -183,7 +259,7 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
      */
     @Override
     public void setDefaults() {
-        mStatusTextSize = getContext().getResources().getDimension(R.dimen.lib_fingerprint_status_text_size);
+        mStatusTextSize = getRootView().getDimens().getFingerprintStatusTextSize();
 
         mNormalStatusText = DEF_FINGERPRINT_STATUS;
         mCurrentStatusText = mNormalStatusText;
@@ -199,12 +275,17 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
     @Override
     public void drawView(@NonNull Canvas canvas) {
         if (isFingerPrintBoxVisible) {
+            //Shake the box by translating the canvas. Bounds stay as they are.
+            final int saveCount = canvas.save();
+            canvas.translate(mErrorAnimator.getOffset(), 0);
 
             //Show fingerprint icon
             drawFingerPrintIcon(canvas);
 
             //Show finger print text
             drawStatusText(canvas);
+
+            canvas.restoreToCount(saveCount);
         }
     }
 
@@ -226,13 +307,24 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
      * @param canvas {@link Canvas} on which the fingerprint will be drawn.
      */
     private void drawFingerPrintIcon(@NonNull Canvas canvas) {
-        Drawable d = getContext().getResources().getDrawable(R.drawable.ic_fingerprint);
-        d.setBounds((int) (mBounds.exactCenterX() - mBounds.height() / 4),
-                mBounds.top + 15,
-                (int) (mBounds.exactCenterX() + mBounds.height() / 4),
-                mBounds.top + mBounds.height() / 2 + 15);
-        d.setColorFilter(new PorterDuffColorFilter(mStatusTextPaint.getColor(), PorterDuff.Mode.SRC_ATOP));
-        d.draw(canvas);
+        final int left = (int) (mBounds.exactCenterX() - mBounds.height() / 4);
+        final int top = mBounds.top + 15;
+        final int width = (int) (mBounds.exactCenterX() + mBounds.height() / 4) - left;
+        final int height = mBounds.top + mBounds.height() / 2 + 15 - top;
+
+        //Status color changes on error. Both the colors stay in the cache.
+        if (mFingerprintIcon == null
+                || mFingerprintIcon.getWidth() != width
+                || mFingerprintIcon.getHeight() != height
+                || mFingerprintIconColor != mStatusTextPaint.getColor()) {
+            mFingerprintIconColor = mStatusTextPaint.getColor();
+            mFingerprintIcon = ShapeCache.getIcon(getContext(),
+                    R.drawable.ic_fingerprint,
+                    width,
+                    height,
+                    mFingerprintIconColor);
+        }
+        canvas.drawBitmap(mFingerprintIcon, left, top, null);
     }
 
     /**
@@ -258,7 +350,7 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
      * Handle the fingerprint authentication failure. When fingerprint authentication fails, the
      * status text color becomes {@link Color#RED} and shakes the view for 1 seconds.
      *
-     * @see #playErrorAnimation()
+     * @see #mErrorAnimator
      */
     @Override
     public void onAuthenticationFail() {
@@ -266,92 +358,49 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
         mStatusTextPaint.setColor(Color.RED);
 
         //Shake the view.
-        ValueAnimator animator = playErrorAnimation();
-        animator.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                //Do nothing
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-
-                //Return back to the normal view
-                new android.os.Handler().postDelayed(new Runnable() {
-                    @Override
-                    public void run() {
-                        mCurrentStatusText = mNormalStatusText;
-                        if (mStatusTextPaint != null) mStatusTextPaint.setColor(mStatusTextColor);
-                        getRootView().invalidate();
-                    }
-                }, ANIMATION_DURATION /* After 1 second */);
-
-                getRootView().onAuthenticationFail();
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                //Do nothing
-            }
-
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-                //Do nothing
-            }
-        });
-        animator.start();
-    }
-
-    /**
-     * Apply the error animations which will move key left to right and after right to left for two times.
-     */
-    private ValueAnimator playErrorAnimation() {
-        ValueAnimator goLeftAnimator = ValueAnimator.ofInt(0, 10);
-        goLeftAnimator.setInterpolator(new CycleInterpolator(2));
-        goLeftAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mBounds.left += (int) animation.getAnimatedValue();
-                mBounds.right += (int) animation.getAnimatedValue();
-                getRootView().invalidate();
-            }
-        });
-        return goLeftAnimator;
+        getRootView().getAnimationDriver().start(mErrorAnimator);
     }
 
     @Override
     public void onAuthenticationSuccess() {
         mCurrentStatusText = "Fingerprint recognized.";
-
-        new android.os.Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                mCurrentStatusText = mNormalStatusText;
-                getRootView().onAuthenticationSuccess();
-                getRootView().invalidate();
-            }
-        }, ANIMATION_DURATION);
+        getRootView().getTaskScheduler().schedule(mNotifySuccessTask, ANIMATION_DURATION);
     }
 
+    /**
+     * Reset the status text and its color. This won't affect the fingerprint scanning session.
+     *
+     * @see #stopAuth()
+     */
     @Override
     public void reset() {
-        if (mFingerPrintAuthHelper != null && mFingerPrintAuthHelper.isScanning())
-            mFingerPrintAuthHelper.stopAuth();
+        //Don't touch mNotifySuccessTask. The fingerprint is already matched and the success must
+        //be delivered even if the user touches the view meanwhile.
+        getRootView().getTaskScheduler().cancel(mResetStatusTask);
+        if (!getRootView().getTaskScheduler().isScheduled(mNotifySuccessTask)) restoreStatus();
+    }
+
+    /**
+     * Return back to the normal status text and color.
+     */
+    private void restoreStatus() {
+        mCurrentStatusText = mNormalStatusText;
+        if (mStatusTextPaint != null) mStatusTextPaint.setColor(mStatusTextColor);
     }
 
     ///////////////// FINGERPRINT AUTHENTICATION CALLBACKS. //////////////
 
     @Override
-    public void onFingerprintAuthSuccess(FingerprintManager.CryptoObject cryptoObject) {
+    public void onBiometricAuthSuccess() {
         onAuthenticationSuccess();
     }
 
     @Override
-    public void onFingerprintAuthFailed(int errorCode, String errorMessage) {
+    public void onBiometricAuthFailed(int errorCode, @Nullable String errorMessage) {
         switch (errorCode) {
-            case FingerPrintAuthHelper.CANNOT_RECOGNIZE_ERROR:
-            case FingerPrintAuthHelper.NON_RECOVERABLE_ERROR:
-            case FingerPrintAuthHelper.RECOVERABLE_ERROR:
+            case BiometricProvider.CANNOT_RECOGNIZE_ERROR:
+            case BiometricProvider.NON_RECOVERABLE_ERROR:
+            case BiometricProvider.RECOVERABLE_ERROR:
                 //Display the error message
                 mCurrentStatusText = errorMessage;
 
@@ -398,6 +447,25 @@ final class BoxFingerprint extends Box implements FingerPrintAuthHelper.FingerPr
      * @param isEnable true if the fingerprint scanning is enabled.
      */
     void setFingerPrintEnable(boolean isEnable) {
-        this.isFingerPrintBoxVisible = isEnable && Utils.isFingerPrintEnrolled(getContext());
+        this.mIsFingerPrintEnabled = isEnable;
+        this.isFingerPrintBoxVisible = isEnable && mBiometricProvider.isAvailable();
+        if (!isFingerPrintBoxVisible) stopAuth();
+    }
+
+    @NonNull
+    BiometricProvider getBiometricProvider() {
+        return mBiometricProvider;
+    }
+
+    /**
+     * Replace the {@link BiometricProvider}. This will stop the session of the current provider.
+     * Call {@link #startAuth()} to start scanning with the new provider.
+     *
+     * @param biometricProvider New {@link BiometricProvider}.
+     */
+    void setBiometricProvider(@NonNull BiometricProvider biometricProvider) {
+        stopAuth();
+        mBiometricProvider = biometricProvider;
+        setFingerPrintEnable(mIsFingerPrintEnabled);
     }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Geometry of all the items (keys, pattern cells or indicators) in a box, stored as parallel
+ * primitive arrays. The box fills it once per layout and the items read their centers and
+ * touch area from it, so drawing and hit-testing walk plain float arrays instead of chasing
+ * {@link Rect} objects.
+ *
+ * @author agent
+ */
+public final class BoxGeometry {
+    /**
+     * Index returned by {@link #findIndexAt(float, float)} if no item is under the touch.
+     */
+    public static final int NO_INDEX = -1;
+
+    private final int mCount;
+    private final float[] mLeft;
+    private final float[] mTop;
+    private final float[] mRight;
+    private final float[] mBottom;
+    private final float[] mCenterX;
+    private final float[] mCenterY;
+
+    /**
+     * Half width of the touch area around {@link #mCenterX}.
+     */
+    private final float[] mTouchHalfWidth;
+
+    /**
+     * Half height of the touch area around {@link #mCenterY}.
+     */
+    private final float[] mTouchHalfHeight;
+
+    /**
+     * @param count Number of the items in the box.
+     */
+    @InternalApi
+    public BoxGeometry(final int count) {
+        mCount = count;
+        mLeft = new float[count];
+        mTop = new float[count];
+        mRight = new float[count];
+        mBottom = new float[count];
+        mCenterX = new float[count];
+        mCenterY = new float[count];
+        mTouchHalfWidth = new float[count];
+        mTouchHalfHeight = new float[count];
+    }
+
+    /**
+     * Geometry with the single item. Used for the items which are built without the box geometry.
+     *
+     * @param bound Bound of the item.
+     * @return {@link BoxGeometry} with the only item at index 0.
+     */
+    @NonNull
+    @InternalApi
+    public static BoxGeometry of(@NonNull final Rect bound) {
+        final BoxGeometry geometry = new BoxGeometry(1);
+        geometry.set(0, bound.left, bound.top, bound.right, bound.bottom);
+        return geometry;
+    }
+
+    /**
+     * Set the bound of the item. The touch area is reset to the bound.
+     */
+    @InternalApi
+    public void set(final int index,
+                    final int left,
+                    final int top,
+                    final int right,
+                    final int bottom) {
+        mLeft[index] = left;
+        mTop[index] = top;
+        mRight[index] = right;
+        mBottom[index] = bottom;
+        mCenterX[index] = (left + right) * 0.5f;
+        mCenterY[index] = (top + bottom) * 0.5f;
+        mTouchHalfWidth[index] = (right - left) * 0.5f;
+        mTouchHalfHeight[index] = (bottom - top) * 0.5f;
+    }
+
+    /**
+     * Set the square touch area of the given radius around the center of the item.
+     */
+    @InternalApi
+    public void setTouchRadius(final int index, final float radius) {
+        mTouchHalfWidth[index] = radius;
+        mTouchHalfHeight[index] = radius;
+    }
+
+    /**
+     * @return True if the touch coordinates are inside the touch area of the item.
+     */
+    @InternalApi
+    public boolean isInTouchArea(final int index, final float x, final float y) {
+        return x > mCenterX[index] - mTouchHalfWidth[index]
+                && x < mCenterX[index] + mTouchHalfWidth[index]
+                && y > mCenterY[index] - mTouchHalfHeight[index]
+                && y < mCenterY[index] + mTouchHalfHeight[index];
+    }
+
+    /**
+     * Find the item under the touch coordinates.
+     *
+     * @return Index of the item or {@link #NO_INDEX}.
+     */
+    @InternalApi
+    public int findIndexAt(final float x, final float y) {
+        for (int i = 0; i < mCount; i++) {
+            if (isInTouchArea(i, x, y)) return i;
+        }
+        return NO_INDEX;
+    }
+
+    /**
+     * @return New {@link Rect} with the bound of the item.
+     */
+    @NonNull
+    @InternalApi
+    public Rect getBounds(final int index) {
+        return new Rect((int) mLeft[index], (int) mTop[index], (int) mRight[index], (int) mBottom[index]);
+    }
+
+    ///////////////// GETTERS //////////////
+
+    @InternalApi
+    public int getCount() {
+        return mCount;
+    }
+
+    @InternalApi
+    public float getLeft(final int index) {
+        return mLeft[index];
+    }
+
+    @InternalApi
+    public float getTop(final int index) {
+        return mTop[index];
+    }
+
+    @InternalApi
+    public float getRight(final int index) {
+        return mRight[index];
+    }
+
+    @InternalApi
+    public float getBottom(final int index) {
+        return mBottom[index];
+    }
+
+    @InternalApi
+    public float getCenterX(final int index) {
+        return mCenterX[index];
+    }
+
+    @InternalApi
+    public float getCenterY(final int index) {
+        return mCenterY[index];
+    }
+}
@@ -16,17 +16,13 @@ package com.kevalpatel.passcodeview.internal;
 
 import android.graphics.Canvas;
 import android.graphics.Rect;
-import android.graphics.drawable.Drawable;
 import android.support.annotation.NonNull;
-import android.support.annotation.Nullable;
-import android.support.annotation.Size;
-import android.util.AttributeSet;
 
 import com.kevalpatel.passcodeview.Constants;
 import com.kevalpatel.passcodeview.PinView;
-import com.kevalpatel.passcodeview.R;
 import com.kevalpatel.passcodeview.keys.Key;
 import com.kevalpatel.passcodeview.keys.KeyNamesBuilder;
+import com.kevalpatel.passcodeview.keys.KeypadLayout;
 
 import java.util.ArrayList;
 
@@ -38,13 +34,29 @@ import java.util.ArrayList;
 
 public final class BoxKeypad extends Box {
 
-    @NonNull
-    private final Drawable mBackSpaceIcon;
     /**
      * Names of all the keys to display in the key board.
      */
-    @Size(Constants.NO_OF_KEY_BOARD_ROWS * Constants.NO_OF_KEY_BOARD_COLUMNS)
-    private String[][] sKeyNames;
+    @NonNull
+    private KeyNamesBuilder mKeyNames = new KeyNamesBuilder();
+    /**
+     * Incremented whenever {@link #mKeyNames} changes. Cached layouts compare it to find out if
+     * their keys need to be relabelled.
+     */
+    private int mKeyNamesVersion = 0;
+    /**
+     * Arrangement of the {@link #mKeys} currently displayed. Index of the key in the layout is same as
+     * its index in {@link #mKeys}. This only changes in {@link #measureView(Rect)} together with the
+     * keys, so the touches always map to the keys they are displayed as.
+     */
+    @NonNull
+    private KeypadLayout mKeypadLayout = KeypadLayout.standard();
+    /**
+     * Arrangement set by the application. It gets promoted to {@link #mKeypadLayout} in the next
+     * {@link #measureView(Rect)}.
+     */
+    @NonNull
+    private KeypadLayout mPendingKeypadLayout = mKeypadLayout;
     /**
      * Boolean to indicate if the keyboard in the one hand operation? If this is true, the keys will be
      * shrieked horizontally to accommodate in small areas.
@@ -57,6 +69,17 @@ public final class BoxKeypad extends Box {
      */
     @NonNull
     private ArrayList<Key> mKeys;
+    /**
+     * {@link BoxGeometry} of all the {@link #mKeys}. Index of the key in the geometry is same as
+     * its index in the list.
+     */
+    @NonNull
+    private BoxGeometry mGeometry;
+    /**
+     * Keys built for the recent view sizes.
+     */
+    @NonNull
+    private final LayoutCache<MeasuredKeypad> mLayoutCache = new LayoutCache<>();
     /**
      * {@link Rect} coordinates of the keyboard box.
      */
@@ -66,6 +89,11 @@ public final class BoxKeypad extends Box {
      * {@link Key.Builder} with the parameters of the key.
      */
     private Key.Builder mKeyBuilder;
+    /**
+     * {@link ShakeAnimator} to shake the whole keypad when the authentication fails.
+     */
+    @NonNull
+    private final ShakeAnimator mShakeAnimator;
 
     /**
      * Public constructor.
@@ -76,7 +104,8 @@ public final class BoxKeypad extends Box {
         super(basePasscodeView);
         //Initialize the keys list
         mKeys = new ArrayList<>();
-        mBackSpaceIcon = getContext().getResources().getDrawable(R.drawable.ic_back_space);
+        mGeometry = new BoxGeometry(0);
+        mShakeAnimator = new ShakeAnimator(getRootView());
     }
 
     @Override
@@ -90,7 +119,8 @@ public final class BoxKeypad extends Box {
     @SuppressWarnings("deprecation")
     @Override
     public void setDefaults() {
-        mKeys.clear();
+        mKeys = new ArrayList<>();
+        mGeometry = new BoxGeometry(0);
     }
 
     @Override
@@ -99,27 +129,33 @@ public final class BoxKeypad extends Box {
     }
 
     @Override
-    public void parseTypeArr(@NonNull final AttributeSet typedArray) {
+    public void applyTheme(@NonNull final PasscodeTheme theme) {
         //Do nothing
     }
 
     /**
-     * Draw keyboard on the canvas. This will drawText all the {@link #sKeyNames} on the canvas.
+     * Draw keyboard on the canvas. This will draw all the {@link #mKeys} on the canvas.
      *
      * @param canvas canvas on which the keyboard will be drawn.
      */
     @Override
     public void drawView(@NonNull final Canvas canvas) {
+        //Shake the whole keypad by translating the canvas. Key bounds stay as they are.
+        final int saveCount = canvas.save();
+        canvas.translate(mShakeAnimator.getOffset(), 0);
+
         for (Key key : mKeys) {
-            if (key.getDigit().isEmpty()) continue; //Don't drawText the empty button
+            if (key.getKeyCode() == KeyNamesBuilder.KEY_CODE_EMPTY) continue; //Don't drawText the empty button
 
             key.drawShape(canvas);
-            if (key.getDigit().equals(KeyNamesBuilder.BACKSPACE_TITLE)) {
-                key.drawBackSpace(canvas, mBackSpaceIcon);
+            if (key.getKeyCode() == KeyNamesBuilder.KEY_CODE_BACKSPACE) {
+                key.drawBackSpace(canvas);
             } else {
                 key.drawText(canvas);
             }
         }
+
+        canvas.restoreToCount(saveCount);
     }
 
     /**
@@ -154,6 +190,24 @@ public final class BoxKeypad extends Box {
         if (mKeyBuilder == null)
             throw new NullPointerException("Set key using KeyBuilder first.");
 
+        //Reuse the keys if they were built for this size already.
+        final long layoutKey = LayoutCache.key(rootViewBound.width(),
+                rootViewBound.height(),
+                getRootView().isFingerPrintEnable(),
+                mIsOneHandOperation);
+        final MeasuredKeypad cachedLayout = mLayoutCache.get(getRootView(), layoutKey);
+        if (cachedLayout != null && cachedLayout.mKeypadLayout == mPendingKeypadLayout) {
+            mKeyBoxBound.set(cachedLayout.mBound);
+            mKeys = cachedLayout.mKeys;
+            mGeometry = cachedLayout.mGeometry;
+            mKeypadLayout = cachedLayout.mKeypadLayout;
+            if (cachedLayout.mKeyNamesVersion != mKeyNamesVersion) {
+                relabelKeys(mKeys);
+                cachedLayout.mKeyNamesVersion = mKeyNamesVersion;
+            }
+            return;
+        }
+
         //Prepare the bound of the key board box
         mKeyBoxBound.left = mIsOneHandOperation ? (int) (rootViewBound.width() * 0.3) : 0;
         mKeyBoxBound.right = rootViewBound.width();
@@ -162,29 +216,35 @@ public final class BoxKeypad extends Box {
                 rootViewBound.height() * (getRootView().isFingerPrintEnable() ? Constants.KEY_BOARD_BOTTOM_WEIGHT : 0));
 
         //Prepare the keys.
-        float singleKeyHeight = mKeyBoxBound.height() / Constants.NO_OF_KEY_BOARD_ROWS;
-        float singleKeyWidth = mKeyBoxBound.width() / Constants.NO_OF_KEY_BOARD_COLUMNS;
-
-        mKeys.clear();
-
-        //Columns
-        for (int colNo = 0; colNo < Constants.NO_OF_KEY_BOARD_COLUMNS; colNo++) {
-
-            //Rows
-            for (int rowNo = 0; rowNo < Constants.NO_OF_KEY_BOARD_ROWS; rowNo++) {
-
-                Rect keyBound = new Rect();
-                keyBound.left = (int) ((colNo * singleKeyWidth) + mKeyBoxBound.left);
-                keyBound.right = (int) (keyBound.left + singleKeyWidth);
-                keyBound.top = (int) ((rowNo * singleKeyHeight) + mKeyBoxBound.top);
-                keyBound.bottom = (int) (keyBound.top + singleKeyHeight);
-                mKeys.add(mKeyBuilder.buildInternal(sKeyNames[colNo][rowNo], keyBound));
-            }
+        mKeypadLayout = mPendingKeypadLayout;
+        final float singleKeyHeight = (float) mKeyBoxBound.height() / mKeypadLayout.getRowCount();
+        final float singleKeyWidth = (float) mKeyBoxBound.width() / mKeypadLayout.getColumnCount();
+
+        final int numOfKeys = mKeypadLayout.getKeyCount();
+        mKeys = new ArrayList<>(numOfKeys);
+        mGeometry = new BoxGeometry(numOfKeys);
+
+        for (int index = 0; index < numOfKeys; index++) {
+            final int left = (int) ((mKeypadLayout.getColumn(index) * singleKeyWidth) + mKeyBoxBound.left);
+            final int top = (int) ((mKeypadLayout.getRow(index) * singleKeyHeight) + mKeyBoxBound.top);
+            mGeometry.set(index,
+                    left,
+                    top,
+                    (int) (left + mKeypadLayout.getColumnSpan(index) * singleKeyWidth),
+                    (int) (top + mKeypadLayout.getRowSpan(index) * singleKeyHeight));
+
+            final int keyCode = mKeypadLayout.getKeyCode(index);
+            mKeys.add(mKeyBuilder.build(mKeyNames.getKeyName(keyCode), keyCode, mGeometry.getBounds(index)));
         }
+
+        mLayoutCache.put(layoutKey, new MeasuredKeypad(mKeyBoxBound, mKeys, mGeometry, mKeypadLayout, mKeyNamesVersion));
     }
 
     @Override
     public void onAuthenticationFail() {
+        //Shake the keypad
+        getRootView().getAnimationDriver().start(mShakeAnimator);
+
         //Play failed animation for all keys
         for (Key key : mKeys) key.onAuthFail();
     }
@@ -204,18 +264,44 @@ public final class BoxKeypad extends Box {
 
     /**
      * Set the name of the different keys based on the locale.
-     * This method and {@link #sKeyNames} are static to avoid duplicate object creation.
      *
      * @param keyNames String with the names of the key.
      * @see KeyNamesBuilder
      */
     @InternalApi
     public void setKeyNames(@NonNull final KeyNamesBuilder keyNames) {
-        sKeyNames = new String[][]{
-                {keyNames.getKeyOne(), keyNames.getKeyFour(), keyNames.getKeySeven(), ""},
-                {keyNames.getKeyTwo(), keyNames.getKeyFive(), keyNames.getKeyEight(), keyNames.getKeyZero()},
-                {keyNames.getKeyThree(), keyNames.getKeySix(), keyNames.getKeyNine(), KeyNamesBuilder.BACKSPACE_TITLE}
-        };
+        mKeyNames = keyNames;
+        mKeyNamesVersion++;
+
+        //Relabel the keys in place. Other cached layouts are relabelled when they are reused.
+        relabelKeys(mKeys);
+    }
+
+    /**
+     * Set the titles from {@link #mKeyNames} to the already built keys. Keys keep their bounds, so
+     * this only needs the redraw.
+     *
+     * @param keys Keys built in {@link #measureView(Rect)}.
+     */
+    private void relabelKeys(@NonNull final ArrayList<Key> keys) {
+        for (Key key : keys) key.setDigit(mKeyNames.getKeyName(key.getKeyCode()));
+    }
+
+    /**
+     * Find the key under the touch by mapping the coordinates to the cell of the
+     * {@link #mKeypadLayout} grid.
+     *
+     * @return Index of the key or {@link KeypadLayout#NO_KEY}.
+     */
+    private int findKeyIndexAt(final float x, final float y) {
+        if (x < mKeyBoxBound.left || x >= mKeyBoxBound.right
+                || y < mKeyBoxBound.top || y >= mKeyBoxBound.bottom) {
+            return KeypadLayout.NO_KEY;
+        }
+
+        final int column = (int) ((x - mKeyBoxBound.left) * mKeypadLayout.getColumnCount() / mKeyBoxBound.width());
+        final int row = (int) ((y - mKeyBoxBound.top) * mKeypadLayout.getRowCount() / mKeyBoxBound.height());
+        return mKeypadLayout.getKeyIndexAt(row, column);
     }
 
     /**
@@ -225,25 +311,31 @@ public final class BoxKeypad extends Box {
      * @param downEventY ACTION_DOWN event Y coordinate
      * @param upEventX   ACTION_UP event X coordinate
      * @param upEventY   ACTION_UP event Y coordinate
+     * @return Code of the pressed key or {@link KeyNamesBuilder#KEY_CODE_EMPTY} if no key is pressed.
+     * @see Key#getKeyCode()
      */
     @InternalApi
-    @Nullable
-    public String findKeyPressed(final float downEventX,
-                                 final float downEventY,
-                                 final float upEventX,
-                                 final float upEventY) {
+    public int findKeyPressed(final float downEventX,
+                              final float downEventY,
+                              final float upEventX,
+                              final float upEventY) {
         //figure out down key.
-        for (Key key : mKeys) {
-            if (key.getDigit().isEmpty()) continue;  //Empty key
+        final int index = findKeyIndexAt(downEventX, downEventY);
+        if (index == KeypadLayout.NO_KEY) return KeyNamesBuilder.KEY_CODE_EMPTY;
 
-            //Update the typed passcode if the ACTION_DOWN and ACTION_UP keys are same.
-            //Prevent swipe gestures to trigger false key press event.
-            if (key.isKeyPressed(downEventX, downEventY) && key.isKeyPressed(upEventX, upEventY)) {
-                key.playClickAnimation();
-                return key.getDigit();
-            }
+        //Update the typed passcode if the ACTION_DOWN and ACTION_UP keys are same.
+        //Prevent swipe gestures to trigger false key press event.
+        if (findKeyIndexAt(upEventX, upEventY) != index) return KeyNamesBuilder.KEY_CODE_EMPTY;
+
+        final Key key = mKeys.get(index);
+        if (key.getKeyCode() == KeyNamesBuilder.KEY_CODE_EMPTY) return KeyNamesBuilder.KEY_CODE_EMPTY;
+
+        //Let the key decide for the custom shapes.
+        if (key.isKeyPressed(downEventX, downEventY) && key.isKeyPressed(upEventX, upEventY)) {
+            key.playClickAnimation();
+            return key.getKeyCode();
         }
-        return null;
+        return KeyNamesBuilder.KEY_CODE_EMPTY;
     }
 
     @InternalApi
@@ -262,6 +354,21 @@ public final class BoxKeypad extends Box {
         mIsOneHandOperation = oneHandOperation;
     }
 
+    @InternalApi
+    @NonNull
+    public KeypadLayout getKeypadLayout() {
+        return mPendingKeypadLayout;
+    }
+
+    /**
+     * Set the arrangement of the keys. The displayed keys keep the old layout until the next
+     * {@link #measureView(Rect)}.
+     */
+    @InternalApi
+    public void setKeypadLayout(@NonNull final KeypadLayout keypadLayout) {
+        mPendingKeypadLayout = keypadLayout;
+    }
+
     @InternalApi
     public Key.Builder getKeyBuilder() {
         return mKeyBuilder;
@@ -271,4 +378,37 @@ public final class BoxKeypad extends Box {
     public void setKeyBuilder(final Key.Builder keyBuilder) {
         mKeyBuilder = keyBuilder;
     }
+
+    /**
+     * Keypad geometry measured for one view size.
+     */
+    private static final class MeasuredKeypad {
+        @NonNull
+        private final Rect mBound;
+        @NonNull
+        private final ArrayList<Key> mKeys;
+        @NonNull
+        private final BoxGeometry mGeometry;
+        /**
+         * {@link KeypadLayout} the keys are built for.
+         */
+        @NonNull
+        private final KeypadLayout mKeypadLayout;
+        /**
+         * {@link #mKeyNamesVersion} the keys are labelled with.
+         */
+        private int mKeyNamesVersion;
+
+        private MeasuredKeypad(@NonNull final Rect bound,
+                               @NonNull final ArrayList<Key> keys,
+                               @NonNull final BoxGeometry geometry,
+                               @NonNull final KeypadLayout keypadLayout,
+                               final int keyNamesVersion) {
+            mBound = new Rect(bound);
+            mKeys = keys;
+            mGeometry = geometry;
+            mKeypadLayout = keypadLayout;
+            mKeyNamesVersion = keyNamesVersion;
+        }
+    }
 }
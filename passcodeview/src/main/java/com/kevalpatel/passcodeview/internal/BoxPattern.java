@@ -14,19 +14,17 @@
 
 package com.kevalpatel.passcodeview.internal;
 
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.AttributeSet;
 
 import com.kevalpatel.passcodeview.Constants;
-import com.kevalpatel.passcodeview.R;
 import com.kevalpatel.passcodeview.patternCells.PatternCell;
 import com.kevalpatel.passcodeview.patternCells.PatternPoint;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Created by Keval on 07-Apr-17.
@@ -35,6 +33,11 @@ import java.util.ArrayList;
  */
 
 public final class BoxPattern extends Box {
+    /**
+     * Time for which the error or success state of the cells is displayed.
+     */
+    private static final long RESULT_STATE_DURATION = 400;
+
     /**
      * Boolean to indicate if the keyboard in the one hand operation? If this is true, the keys will be
      * shrieked horizontally to accommodate in small areas.
@@ -57,6 +60,42 @@ public final class BoxPattern extends Box {
      */
     private ArrayList<PatternCell> mPatternCells;
 
+    /**
+     * {@link BoxGeometry} of all the {@link #mPatternCells}. Index of the cell in the geometry is
+     * same as its index in the list.
+     */
+    @NonNull
+    private BoxGeometry mGeometry = new BoxGeometry(0);
+
+    /**
+     * Visual state of all the {@link #mPatternCells}. Index of the cell in this array is same as
+     * its index in the list. Cells read their state from here.
+     *
+     * @see PatternCell#STATE_IDLE
+     * @see PatternCell#STATE_SELECTED
+     * @see PatternCell#STATE_ERROR
+     * @see PatternCell#STATE_SUCCESS
+     */
+    @NonNull
+    private byte[] mCellStates = new byte[0];
+
+    /**
+     * Task to move all the cells back to the idle state after {@link #RESULT_STATE_DURATION}.
+     */
+    @NonNull
+    private final TaskScheduler.Task mResetStatesTask = new TaskScheduler.Task() {
+        @Override
+        protected void onRun() {
+            Arrays.fill(mCellStates, PatternCell.STATE_IDLE);
+            getRootView().invalidate();
+        }
+
+        @Override
+        protected void onCancel() {
+            Arrays.fill(mCellStates, PatternCell.STATE_IDLE);
+        }
+    };
+
     /**
      * {@link Rect} with the bound of this box.
      */
@@ -69,6 +108,18 @@ public final class BoxPattern extends Box {
      */
     private PatternCell.Builder mCellBuilder;
 
+    /**
+     * Cells built for the recent view sizes.
+     */
+    @NonNull
+    private final LayoutCache<MeasuredPattern> mLayoutCache = new LayoutCache<>();
+
+    /**
+     * Draws the cells grouped by their paints.
+     */
+    @NonNull
+    private final PatternCellBatch mCellBatch = new PatternCellBatch();
+
     /**
      * Public constructor
      *
@@ -113,6 +164,25 @@ public final class BoxPattern extends Box {
      */
     @Override
     public void measureView(@NonNull Rect rootViewBound) {
+        //States of the displayed cells. The typed pattern doesn't change while measuring, so the
+        //new cells show the same states.
+        final byte[] previousStates = mCellStates;
+
+        //Reuse the cells if they were built for this size already.
+        final long layoutKey = LayoutCache.key(rootViewBound.width(),
+                rootViewBound.height(),
+                getRootView().isFingerPrintEnable(),
+                mIsOneHandOperation);
+        final MeasuredPattern cachedLayout = mLayoutCache.get(getRootView(), layoutKey);
+        if (cachedLayout != null) {
+            mPatternBoxBound.set(cachedLayout.mBound);
+            mPatternCells = cachedLayout.mCells;
+            mGeometry = cachedLayout.mGeometry;
+            mCellStates = cachedLayout.mStates;
+            adoptStates(previousStates);
+            return;
+        }
+
         //Pattern box bounds.
         mPatternBoxBound.left = mIsOneHandOperation ? (int) (rootViewBound.width() * 0.3) : 0;
         mPatternBoxBound.right = rootViewBound.width();
@@ -124,18 +194,39 @@ public final class BoxPattern extends Box {
         float singleIndicatorHeight = mPatternBoxBound.height() / mNoOfRows;
         float singleIndicatorWidth = mPatternBoxBound.width() / mNoOfColumn;
 
-        mPatternCells = new ArrayList<>();
+        final int numOfCells = mNoOfColumn * mNoOfRows;
+        mPatternCells = new ArrayList<>(numOfCells);
+        mGeometry = new BoxGeometry(numOfCells);
+        mCellStates = new byte[numOfCells];
         for (int colNo = 0; colNo < mNoOfColumn; colNo++) {
             for (int rowNo = 0; rowNo < mNoOfRows; rowNo++) {
-                Rect indicatorBound = new Rect();
-                indicatorBound.left = (int) ((colNo * singleIndicatorWidth) + mPatternBoxBound.left);
-                indicatorBound.right = (int) (indicatorBound.left + singleIndicatorWidth);
-                indicatorBound.top = (int) ((rowNo * singleIndicatorHeight) + mPatternBoxBound.top);
-                indicatorBound.bottom = (int) (indicatorBound.top + singleIndicatorHeight);
+                final int left = (int) ((colNo * singleIndicatorWidth) + mPatternBoxBound.left);
+                final int top = (int) ((rowNo * singleIndicatorHeight) + mPatternBoxBound.top);
+                final int index = mPatternCells.size();
+                mGeometry.set(index, left, top, (int) (left + singleIndicatorWidth), (int) (top + singleIndicatorHeight));
 
-                mPatternCells.add(mCellBuilder.buildInternal(indicatorBound, new PatternPoint(rowNo, colNo)));
+                mPatternCells.add(mCellBuilder.build(mGeometry.getBounds(index), new PatternPoint(rowNo, colNo), mCellStates, index));
             }
         }
+
+        adoptStates(previousStates);
+        mLayoutCache.put(layoutKey, new MeasuredPattern(mPatternBoxBound, mPatternCells, mGeometry, mCellStates));
+    }
+
+    /**
+     * Copy the states of the previously displayed cells into {@link #mCellStates}. If the number
+     * of the cells changed, the states don't map to the new cells, so all of them become idle.
+     *
+     * @param previousStates States of the previously displayed cells.
+     */
+    private void adoptStates(@NonNull final byte[] previousStates) {
+        if (previousStates == mCellStates) return;
+
+        if (previousStates.length == mCellStates.length) {
+            System.arraycopy(previousStates, 0, mCellStates, 0, previousStates.length);
+        } else {
+            Arrays.fill(mCellStates, PatternCell.STATE_IDLE);
+        }
     }
 
     @Override
@@ -144,16 +235,9 @@ public final class BoxPattern extends Box {
     }
 
     @Override
-    public void parseTypeArr(@NonNull AttributeSet typedArray) {
-        TypedArray a = getContext().getTheme().obtainStyledAttributes(typedArray,
-                R.styleable.PatternView, 0, 0);
-
-        try { //Parse title params
-            mNoOfRows = a.getInt(R.styleable.PatternView_noOfRows, Constants.DEF_PATTERN_LENGTH);
-            mNoOfColumn = a.getInt(R.styleable.PatternView_noOfColumns, Constants.DEF_PATTERN_LENGTH);
-        } finally {
-            a.recycle();
-        }
+    public void applyTheme(@NonNull final PasscodeTheme theme) {
+        mNoOfRows = theme.getNoOfRows();
+        mNoOfColumn = theme.getNoOfColumns();
     }
 
     /**
@@ -167,19 +251,57 @@ public final class BoxPattern extends Box {
 
     @Override
     public void onAuthenticationFail() {
-        //Play failed animation for all keys
+        //Display all the cells in error state
+        Arrays.fill(mCellStates, PatternCell.STATE_ERROR);
+        getRootView().getTaskScheduler().schedule(mResetStatesTask, RESULT_STATE_DURATION);
+
+        //Let the custom cells play their animations
         for (PatternCell patternCell : mPatternCells) patternCell.onAuthFailed();
     }
 
     @Override
     public void onAuthenticationSuccess() {
-        //Play success animation for all keys
+        //Display the selected cells in success state
+        for (int i = 0; i < mCellStates.length; i++) {
+            if (mCellStates[i] == PatternCell.STATE_SELECTED) mCellStates[i] = PatternCell.STATE_SUCCESS;
+        }
+        getRootView().getTaskScheduler().schedule(mResetStatesTask, RESULT_STATE_DURATION);
+
+        //Let the custom cells play their animations
         for (PatternCell patternCell : mPatternCells) patternCell.onAuthSuccess();
     }
 
     @Override
     public void reset() {
-        //TODO reset the view
+        getRootView().getTaskScheduler().cancel(mResetStatesTask);
+        Arrays.fill(mCellStates, PatternCell.STATE_IDLE);
+    }
+
+    /**
+     * Display the cell as selected while the user is drawing the pattern.
+     *
+     * @param cell {@link PatternCell} added to the pattern.
+     */
+    @InternalApi
+    public void setCellSelected(@NonNull final PatternCell cell) {
+        final int index = cell.getIndex();
+
+        //Ignore the cells of the other layouts.
+        if (index >= mPatternCells.size() || mPatternCells.get(index) != cell) return;
+
+        if (mCellStates[index] == PatternCell.STATE_IDLE)
+            mCellStates[index] = PatternCell.STATE_SELECTED;
+    }
+
+    /**
+     * Move all the selected cells back to the idle state. Error and success states are cleared by
+     * their own timer.
+     */
+    @InternalApi
+    public void clearSelection() {
+        for (int i = 0; i < mCellStates.length; i++) {
+            if (mCellStates[i] == PatternCell.STATE_SELECTED) mCellStates[i] = PatternCell.STATE_IDLE;
+        }
     }
 
     /**
@@ -188,7 +310,7 @@ public final class BoxPattern extends Box {
      * @param canvas canvas on which the keyboard will be drawn.
      */
     public void drawView(@NonNull Canvas canvas) {
-        for (PatternCell patternCell : mPatternCells) patternCell.draw(canvas);
+        mCellBatch.draw(canvas, mPatternCells);
     }
 
     /**
@@ -196,9 +318,12 @@ public final class BoxPattern extends Box {
      */
     @Nullable
     public PatternCell findCell(float touchX, float touchY) {
-        for (PatternCell patternCell : mPatternCells)
-            if (patternCell.isIndicatorTouched(touchX, touchY)) return patternCell;
-        return null;
+        final int index = mGeometry.findIndexAt(touchX, touchY);
+        if (index == BoxGeometry.NO_INDEX) return null;
+
+        //Let the cell decide for the custom shapes.
+        final PatternCell patternCell = mPatternCells.get(index);
+        return patternCell.isIndicatorTouched(touchX, touchY) ? patternCell : null;
     }
 
     ///////////////// SETTERS/GETTERS //////////////
@@ -243,4 +368,28 @@ public final class BoxPattern extends Box {
     public void setNoOfRows(final int noOfRows) {
         mNoOfRows = noOfRows;
     }
+
+    /**
+     * Pattern box geometry measured for one view size.
+     */
+    private static final class MeasuredPattern {
+        @NonNull
+        private final Rect mBound;
+        @NonNull
+        private final ArrayList<PatternCell> mCells;
+        @NonNull
+        private final BoxGeometry mGeometry;
+        @NonNull
+        private final byte[] mStates;
+
+        private MeasuredPattern(@NonNull final Rect bound,
+                                @NonNull final ArrayList<PatternCell> cells,
+                                @NonNull final BoxGeometry geometry,
+                                @NonNull final byte[] states) {
+            mBound = new Rect(bound);
+            mCells = cells;
+            mGeometry = geometry;
+            mStates = states;
+        }
+    }
 }
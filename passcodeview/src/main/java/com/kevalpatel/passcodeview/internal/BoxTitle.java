@@ -14,13 +14,11 @@
 
 package com.kevalpatel.passcodeview.internal;
 
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
-import android.util.AttributeSet;
 
 import com.kevalpatel.passcodeview.Constants;
 import com.kevalpatel.passcodeview.R;
@@ -99,7 +97,7 @@ public final class BoxTitle extends Box {
         //Write title text
         canvas.drawText(mTitle,
                 mBounds.exactCenterX(),
-                mBounds.top - (int) getContext().getResources().getDimension(R.dimen.lib_divider_vertical_margin),
+                mBounds.top - (int) getRootView().getDimens().getDividerVerticalMargin(),
                 mTitlePaint);
     }
 
@@ -129,7 +127,7 @@ public final class BoxTitle extends Box {
         mBounds.right = rootViewBounds.right;
         mBounds.bottom = rootViewBounds.top
                 + (int) (rootViewBounds.height() * Constants.KEY_BOARD_TOP_WEIGHT
-                - 2 * getContext().getResources().getDimension(R.dimen.lib_divider_vertical_margin));
+                - 2 * getRootView().getDimens().getDividerVerticalMargin());
         mBounds.top = (int) (mBounds.bottom - mTitlePaint.getTextSize());
     }
 
@@ -139,23 +137,14 @@ public final class BoxTitle extends Box {
         mTitlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mTitlePaint.setColor(mTitleColor);
         mTitlePaint.setTextAlign(Paint.Align.CENTER);
-        mTitlePaint.setTextSize(getContext().getResources().getDimension(R.dimen.lib_title_text_size));
+        mTitlePaint.setTextSize(getRootView().getDimens().getTitleTextSize());
     }
 
     @Override
-    public void parseTypeArr(@NonNull final AttributeSet typedArray) {
-        TypedArray a = getContext().getTheme().obtainStyledAttributes(typedArray,
-                R.styleable.PatternView, 0, 0);
-
-        try { //Parse title params
-            //noinspection ConstantConditions
-            mTitle = a.hasValue(R.styleable.PatternView_titleText) ?
-                    a.getString(R.styleable.PatternView_titleText) : DEF_TITLE_TEXT;
-            mTitleColor = a.getColor(R.styleable.PatternView_titleTextColor,
-                    getContext().getResources().getColor(R.color.lib_key_default_color));
-        } finally {
-            a.recycle();
-        }
+    public void applyTheme(@NonNull final PasscodeTheme theme) {
+        //Title params
+        mTitle = theme.getPatternTitleText() != null ? theme.getPatternTitleText() : DEF_TITLE_TEXT;
+        mTitleColor = theme.getPatternTitleTextColor();
     }
 
     ///////////////// SETTERS/GETTERS //////////////
@@ -14,18 +14,15 @@
 
 package com.kevalpatel.passcodeview.internal;
 
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
-import android.util.AttributeSet;
 
 import com.kevalpatel.passcodeview.Constants;
 import com.kevalpatel.passcodeview.PinView;
 import com.kevalpatel.passcodeview.R;
-import com.kevalpatel.passcodeview.Utils;
 import com.kevalpatel.passcodeview.indicators.Indicator;
 
 import java.util.ArrayList;
@@ -40,7 +37,10 @@ import java.util.ArrayList;
 
 public final class BoxTitleIndicator extends Box {
 
-    private static final long ERROR_ANIMATION_DURATION = 400;
+    /**
+     * Delay before the result is displayed on the indicators and the time for which it is displayed.
+     */
+    private static final long RESULT_ANIMATION_DURATION = 400;
     /**
      * Default title text.
      */
@@ -56,6 +56,42 @@ public final class BoxTitleIndicator extends Box {
      */
     private int mTypedPinLength;
 
+    /**
+     * Maximum number of the indicators to display. Longer PINs display only the window of the
+     * indicators around the typed digit with the count of the hidden ones. Zero or less to display as
+     * many indicators as fit in the view.
+     */
+    private int mMaxVisibleIndicators = 0;
+
+    /**
+     * Number of the indicators which fit in the view. Calculated while measuring.
+     */
+    private int mIndicatorCapacity;
+
+    /**
+     * Number of the indicators which fit in the view next to the count of the hidden indicators.
+     * This is the size of the window. Calculated while measuring.
+     */
+    private int mWindowCapacity;
+
+    /**
+     * True if the indicators in the row are only the window of all the indicators.
+     */
+    private boolean isWindowed;
+
+    /**
+     * Number of the indicators hidden before the window and the label to display it.
+     */
+    private int mHiddenIndicators;
+    @NonNull
+    private String mHiddenIndicatorsLabel = "";
+
+    /**
+     * Center of the label for the hidden indicators.
+     */
+    private float mHiddenLabelX;
+    private float mHiddenLabelY;
+
     /**
      * Color of the title text.
      */
@@ -72,9 +108,44 @@ public final class BoxTitleIndicator extends Box {
     private Paint mTitlePaint;
 
     /**
-     * List of all the {@link Indicator}. The length of this array will be same as {@link #mPinLength}.
+     * {@link Paint} of the hidden indicators count.
      */
-    private ArrayList<Indicator> mIndicators;
+    private Paint mHiddenLabelPaint;
+
+    /**
+     * Row of all the {@link Indicator}. The length of the row will be same as {@link #mPinLength}.
+     */
+    @NonNull
+    private final IndicatorRow mIndicatorRow = new IndicatorRow();
+
+    /**
+     * Result state to display on the next run of the {@link #mResultTask}.
+     * {@link Indicator#STATE_EMPTY} if the task should clear the result.
+     */
+    private byte mPendingResultState = Indicator.STATE_EMPTY;
+
+    /**
+     * Task to transition all the indicators. It first displays the {@link #mPendingResultState}
+     * and then clears it after {@link #RESULT_ANIMATION_DURATION}.
+     */
+    @NonNull
+    private final TaskScheduler.Task mResultTask = new TaskScheduler.Task() {
+        @Override
+        protected void onRun() {
+            mIndicatorRow.setResultState(mPendingResultState);
+            if (mPendingResultState != Indicator.STATE_EMPTY) {
+                mPendingResultState = Indicator.STATE_EMPTY;
+                getRootView().getTaskScheduler().schedule(this, RESULT_ANIMATION_DURATION);
+            }
+            getRootView().invalidate();
+        }
+
+        @Override
+        protected void onCancel() {
+            mPendingResultState = Indicator.STATE_EMPTY;
+            mIndicatorRow.setResultState(Indicator.STATE_EMPTY);
+        }
+    };
 
 
     private Rect mDotsIndicatorBound;
@@ -97,46 +168,31 @@ public final class BoxTitleIndicator extends Box {
     }
 
     @Override
-    public void parseTypeArr(@NonNull final AttributeSet typedArray) {
-        TypedArray a = getContext().getTheme().obtainStyledAttributes(typedArray, R.styleable.PinView, 0, 0);
-        try {
-            //Parse title params
-            mTitle = a.hasValue(R.styleable.PinView_pin_titleText) ?
-                    a.getString(R.styleable.PinView_pin_titleText) : DEF_TITLE_TEXT;
-            mTitleColor = a.getColor(R.styleable.PinView_pin_titleTextColor,
-                    Utils.getColorCompat(getContext(), R.color.lib_key_default_color));
-        } finally {
-            a.recycle();
-        }
+    public void applyTheme(@NonNull final PasscodeTheme theme) {
+        //Title params
+        mTitle = theme.getPinTitleText() != null ? theme.getPinTitleText() : DEF_TITLE_TEXT;
+        mTitleColor = theme.getPinTitleTextColor();
     }
 
     @Override
     public void onAuthenticationFail() {
         //Set indicator to error
-        new android.os.Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                for (Indicator indicator : mIndicators) indicator.onAuthFailed();
-                getRootView().invalidate();
-            }
-        }, ERROR_ANIMATION_DURATION);
+        mPendingResultState = Indicator.STATE_ERROR;
+        getRootView().getTaskScheduler().schedule(mResultTask, RESULT_ANIMATION_DURATION);
     }
 
     @Override
     public void onAuthenticationSuccess() {
         //Set indicator to success
-        new android.os.Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                for (Indicator indicator : mIndicators) indicator.onAuthSuccess();
-                getRootView().invalidate();
-            }
-        }, ERROR_ANIMATION_DURATION);
+        mPendingResultState = Indicator.STATE_SUCCESS;
+        getRootView().getTaskScheduler().schedule(mResultTask, RESULT_ANIMATION_DURATION);
     }
 
     @Override
     public void reset() {
-        //TODO Reset
+        getRootView().getTaskScheduler().cancel(mResultTask);
+        mPendingResultState = Indicator.STATE_EMPTY;
+        mIndicatorRow.setResultState(Indicator.STATE_EMPTY);
     }
 
     @Override
@@ -146,11 +202,13 @@ public final class BoxTitleIndicator extends Box {
 
         canvas.drawText(mTitle,
                 mDotsIndicatorBound.exactCenterX(),
-                mDotsIndicatorBound.top - (int) getContext().getResources().getDimension(R.dimen.lib_divider_vertical_margin),
+                mDotsIndicatorBound.top - (int) getRootView().getDimens().getDividerVerticalMargin(),
                 mTitlePaint);
 
-        for (int i = 0; i < mIndicators.size(); i++)
-            mIndicators.get(i).draw(canvas, i < mTypedPinLength);
+        mIndicatorRow.draw(canvas);
+        if (mHiddenIndicators > 0) {
+            canvas.drawText(mHiddenIndicatorsLabel, mHiddenLabelX, mHiddenLabelY, mHiddenLabelPaint);
+        }
     }
 
     /**
@@ -176,9 +234,22 @@ public final class BoxTitleIndicator extends Box {
      */
     @Override
     public void measureView(@NonNull final Rect rootViewBounds) {
-        final int numOfIndicators = mPinLength == PinView.DYNAMIC_PIN_LENGTH ? mTypedPinLength : mPinLength;
-        int indicatorWidth = (int) (mIndicatorBuilder.getIndicatorWidth() + 2 * getContext().getResources().getDimension(R.dimen.lib_indicator_padding));
-        int totalSpace = indicatorWidth * numOfIndicators;
+        int indicatorWidth = (int) (mIndicatorBuilder.getIndicatorWidth() + 2 * getRootView().getDimens().getIndicatorPadding());
+
+        //Only the window of the indicators is displayed if all of them don't fit. One slot on the
+        //left is kept for the count of the hidden indicators in that case.
+        final int slots = rootViewBounds.width() / indicatorWidth;
+        mIndicatorCapacity = Math.max(1, slots);
+        mWindowCapacity = Math.max(1, slots - 1);
+        if (mMaxVisibleIndicators > 0) {
+            mIndicatorCapacity = Math.min(mIndicatorCapacity, mMaxVisibleIndicators);
+            mWindowCapacity = Math.min(mWindowCapacity, mMaxVisibleIndicators);
+        }
+        final int totalIndicators = getTotalIndicators();
+        isWindowed = totalIndicators > mIndicatorCapacity;
+        final int numOfIndicators = getVisibleIndicators(totalIndicators);
+        final int labelSpace = isWindowed ? indicatorWidth : 0;
+        int totalSpace = indicatorWidth * numOfIndicators + labelSpace;
 
         //Calculate the bound of this box.
         mDotsIndicatorBound = new Rect();
@@ -186,19 +257,68 @@ public final class BoxTitleIndicator extends Box {
         mDotsIndicatorBound.right = mDotsIndicatorBound.left + totalSpace;
         mDotsIndicatorBound.bottom = rootViewBounds.top
                 + (int) (rootViewBounds.height() * Constants.KEY_BOARD_TOP_WEIGHT
-                - 2 * getContext().getResources().getDimension(R.dimen.lib_divider_vertical_margin));
+                - 2 * getRootView().getDimens().getDividerVerticalMargin());
         mDotsIndicatorBound.top = mDotsIndicatorBound.bottom - indicatorWidth;
 
         //Prepare all the indicators.
-        mIndicators = new ArrayList<>();
+        final BoxGeometry geometry = new BoxGeometry(numOfIndicators);
+        final ArrayList<Indicator> indicators = new ArrayList<>(numOfIndicators);
         for (int i = 0; i < numOfIndicators; i++) {
-            Rect rect = new Rect();
-            rect.left = mDotsIndicatorBound.left + i * indicatorWidth;
-            rect.right = rect.left + indicatorWidth;
-            rect.top = mDotsIndicatorBound.top;
-            rect.bottom = mDotsIndicatorBound.bottom;
-            mIndicators.add(mIndicatorBuilder.buildInternal(rect));
+            final int left = mDotsIndicatorBound.left + labelSpace + i * indicatorWidth;
+            geometry.set(i, left, mDotsIndicatorBound.top, left + indicatorWidth, mDotsIndicatorBound.bottom);
+            indicators.add(mIndicatorBuilder.buildInternal(geometry.getBounds(i)));
         }
+        mIndicatorRow.setIndicators(indicators, geometry);
+
+        mHiddenLabelX = mDotsIndicatorBound.left + indicatorWidth / 2f;
+        mHiddenLabelY = mDotsIndicatorBound.exactCenterY();
+        if (mHiddenLabelPaint != null)
+            mHiddenLabelY -= (mHiddenLabelPaint.descent() + mHiddenLabelPaint.ascent()) / 2;
+        updateWindow();
+    }
+
+    /**
+     * @param totalIndicators Number of all the indicators.
+     * @return Number of the indicators to display in the row.
+     */
+    private int getVisibleIndicators(final int totalIndicators) {
+        return totalIndicators > mIndicatorCapacity ? mWindowCapacity : totalIndicators;
+    }
+
+    /**
+     * @return Number of all the indicators for the PIN length.
+     */
+    private int getTotalIndicators() {
+        return mPinLength == PinView.DYNAMIC_PIN_LENGTH ? mTypedPinLength : mPinLength;
+    }
+
+    /**
+     * Move the window of the visible indicators, so the last typed digit and the next empty indicator
+     * stay visible, and update the count of the hidden indicators.
+     */
+    private void updateWindow() {
+        final int visibleIndicators = mIndicatorRow.getCount();
+        mHiddenIndicators = isWindowed
+                ? Math.max(0, Math.min(mTypedPinLength + 1 - visibleIndicators, getTotalIndicators() - visibleIndicators))
+                : 0;
+        if (mHiddenIndicators > 0) mHiddenIndicatorsLabel = "+" + mHiddenIndicators;
+        mIndicatorRow.setFilledCount(mTypedPinLength - mHiddenIndicators);
+    }
+
+    /**
+     * Check if the indicators need to be measured again after the typed PIN length changes. Once the
+     * row is full, only the window moves, so typing the long dynamic PIN doesn't measure and
+     * build the indicators for every digit.
+     *
+     * @return True if the {@link #measureView(Rect)} is required.
+     */
+    @InternalApi
+    public boolean isMeasureRequired() {
+        if (mDotsIndicatorBound == null) return true;
+
+        final int totalIndicators = getTotalIndicators();
+        return (totalIndicators > mIndicatorCapacity) != isWindowed
+                || getVisibleIndicators(totalIndicators) != mIndicatorRow.getCount();
     }
 
     @Override
@@ -207,12 +327,17 @@ public final class BoxTitleIndicator extends Box {
         mTitlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mTitlePaint.setColor(mTitleColor);
         mTitlePaint.setTextAlign(Paint.Align.CENTER);
-        mTitlePaint.setTextSize(getContext().getResources().getDimension(R.dimen.lib_title_text_size));
+        mTitlePaint.setTextSize(getRootView().getDimens().getTitleTextSize());
+
+        //Hidden indicators count paint
+        mHiddenLabelPaint = new Paint(mTitlePaint);
+        mHiddenLabelPaint.setTextSize(getRootView().getDimens().getKeyTextSize() / 2);
     }
 
     @InternalApi
     public void onPinDigitEntered(final int newLength) {
         mTypedPinLength = newLength;
+        updateWindow();
     }
 
     @InternalApi
@@ -225,6 +350,16 @@ public final class BoxTitleIndicator extends Box {
         mPinLength = pinLength;
     }
 
+    @InternalApi
+    public int getMaxVisibleIndicators() {
+        return mMaxVisibleIndicators;
+    }
+
+    @InternalApi
+    public void setMaxVisibleIndicators(final int maxVisibleIndicators) {
+        mMaxVisibleIndicators = maxVisibleIndicators;
+    }
+
     @InternalApi
     @NonNull
     public String getTitle() {
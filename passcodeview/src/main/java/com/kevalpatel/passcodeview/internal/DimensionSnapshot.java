@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.support.annotation.Dimension;
+import android.support.annotation.NonNull;
+
+import com.kevalpatel.passcodeview.R;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * All the library dimensions resolved in pixels for one density, font scale and orientation. Those
+ * are the only parts of the {@link Configuration} the library dimensions depend on. Measuring and
+ * drawing read these instead of calling {@link Resources#getDimension(int)} on every pass.
+ * Snapshots are shared by all the views with the same density, font scale and orientation.
+ * {@link BasePasscodeView} gets the new snapshot when the configuration changes.
+ *
+ * @author agent
+ */
+public final class DimensionSnapshot {
+
+    /**
+     * Snapshots by the {@link #key(Resources)} they were resolved for. Rotations and window resizes
+     * don't add the new entries, so this only holds a few snapshots.
+     */
+    @NonNull
+    private static final Map<Long, DimensionSnapshot> sSnapshots = new HashMap<>();
+
+    @Dimension
+    private final float mIndicatorPadding;
+    @Dimension
+    private final float mIndicatorRadius;
+    @Dimension
+    private final float mIndicatorStrokeWidth;
+
+    @Dimension
+    private final float mKeyStrokeWidth;
+    @Dimension
+    private final float mKeyTextSize;
+    @Dimension
+    private final float mKeyPadding;
+
+    @Dimension
+    private final float mDividerVerticalMargin;
+    @Dimension
+    private final float mDividerHorizontalMargin;
+
+    @Dimension
+    private final float mFingerprintStatusTextSize;
+    @Dimension
+    private final float mTitleVerticalMargin;
+    @Dimension
+    private final float mTitleTextSize;
+
+    @Dimension
+    private final float mMinTouchRadius;
+    @Dimension
+    private final float mDotCellRadius;
+    @Dimension
+    private final float mShakeDistance;
+
+    private DimensionSnapshot(@NonNull final Resources resources) {
+        mIndicatorPadding = resources.getDimension(R.dimen.lib_indicator_padding);
+        mIndicatorRadius = resources.getDimension(R.dimen.lib_indicator_radius);
+        mIndicatorStrokeWidth = resources.getDimension(R.dimen.lib_indicator_stroke_width);
+
+        mKeyStrokeWidth = resources.getDimension(R.dimen.lib_key_stroke_width);
+        mKeyTextSize = resources.getDimension(R.dimen.lib_key_text_size);
+        mKeyPadding = resources.getDimension(R.dimen.lib_key_padding);
+
+        mDividerVerticalMargin = resources.getDimension(R.dimen.lib_divider_vertical_margin);
+        mDividerHorizontalMargin = resources.getDimension(R.dimen.lib_divider_horizontal_margin);
+
+        mFingerprintStatusTextSize = resources.getDimension(R.dimen.lib_fingerprint_status_text_size);
+        mTitleVerticalMargin = resources.getDimension(R.dimen.lib_title_vertical_margin);
+        mTitleTextSize = resources.getDimension(R.dimen.lib_title_text_size);
+
+        mMinTouchRadius = resources.getDimension(R.dimen.lib_min_touch_radius);
+        mDotCellRadius = resources.getDimension(R.dimen.lib_dot_cell_radius_radius);
+        mShakeDistance = resources.getDimension(R.dimen.lib_shake_distance);
+    }
+
+    /**
+     * Get the snapshot for the current configuration of the resources. Dimensions are resolved only
+     * if the same density, font scale and orientation wasn't seen before.
+     *
+     * @param resources {@link Resources} of the view.
+     * @return {@link DimensionSnapshot} for the current configuration.
+     */
+    @NonNull
+    public static DimensionSnapshot obtain(@NonNull final Resources resources) {
+        final Long key = key(resources);
+
+        synchronized (sSnapshots) {
+            DimensionSnapshot snapshot = sSnapshots.get(key);
+            if (snapshot == null) {
+                snapshot = new DimensionSnapshot(resources);
+                sSnapshots.put(key, snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Pack the density, the orientation (there are landscape dimensions) and the font scale into
+     * the cache key.
+     */
+    private static long key(@NonNull final Resources resources) {
+        final Configuration configuration = resources.getConfiguration();
+        return ((long) resources.getDisplayMetrics().densityDpi << 40)
+                | ((long) (configuration.orientation & 0xFF) << 32)
+                | (Float.floatToIntBits(configuration.fontScale) & 0xFFFFFFFFL);
+    }
+
+    ///////////////// GETTERS //////////////
+
+    @Dimension
+    public float getIndicatorPadding() {
+        return mIndicatorPadding;
+    }
+
+    @Dimension
+    public float getIndicatorRadius() {
+        return mIndicatorRadius;
+    }
+
+    @Dimension
+    public float getIndicatorStrokeWidth() {
+        return mIndicatorStrokeWidth;
+    }
+
+    @Dimension
+    public float getKeyStrokeWidth() {
+        return mKeyStrokeWidth;
+    }
+
+    @Dimension
+    public float getKeyTextSize() {
+        return mKeyTextSize;
+    }
+
+    @Dimension
+    public float getKeyPadding() {
+        return mKeyPadding;
+    }
+
+    @Dimension
+    public float getDividerVerticalMargin() {
+        return mDividerVerticalMargin;
+    }
+
+    @Dimension
+    public float getDividerHorizontalMargin() {
+        return mDividerHorizontalMargin;
+    }
+
+    @Dimension
+    public float getFingerprintStatusTextSize() {
+        return mFingerprintStatusTextSize;
+    }
+
+    @Dimension
+    public float getTitleVerticalMargin() {
+        return mTitleVerticalMargin;
+    }
+
+    @Dimension
+    public float getTitleTextSize() {
+        return mTitleTextSize;
+    }
+
+    @Dimension
+    public float getMinTouchRadius() {
+        return mMinTouchRadius;
+    }
+
+    @Dimension
+    public float getDotCellRadius() {
+        return mDotCellRadius;
+    }
+
+    @Dimension
+    public float getShakeDistance() {
+        return mShakeDistance;
+    }
+}
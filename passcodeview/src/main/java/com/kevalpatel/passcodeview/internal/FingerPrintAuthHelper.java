@@ -26,6 +26,8 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 
+import com.kevalpatel.passcodeview.biometric.BiometricProvider;
+
 import java.io.IOException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
@@ -44,39 +46,13 @@ import javax.crypto.SecretKey;
 
 /**
  * Created by Keval on 07-Oct-16.<p>
- * This class will authenticate user with finger print.
+ * This class will authenticate user with finger print using {@link FingerprintManager}. This is the
+ * default {@link BiometricProvider} for the fingerprint box.
  * This class is the extended version of {@link 'https://github.com/multidots/android-fingerprint-authentication/blob/master/fingerprint-auth/src/main/java/com/multidots/fingerprintauth/FingerPrintAuthHelper.java'}
  *
  *@author <a href="https://github.com/kevalpatel2106">kevalpatel2106</a>
  */
-final class FingerPrintAuthHelper {
-    /**
-     * Called when a recoverable error has been encountered during authentication.
-     * The help string is provided to give the user guidance for what went wrong, such as "Sensor dirty, please clean it."
-     * This error can be fixed by the user. Developer should display the error message to the screen to guide
-     * user how to fix the error.
-     * <p>
-     * See:'https://developer.android.com/reference/android/hardware/fingerprint/FingerprintManager.AuthenticationCallback.html#onAuthenticationHelp(int, java.lang.CharSequence)'
-     */
-    static final int RECOVERABLE_ERROR = 843;
-
-    /**
-     * Called when an unrecoverable error has been encountered and the operation is complete.
-     * No further callbacks will be made on this object.
-     * Developer can stop the finger print scanning whenever this error occur and display the message received in callback.
-     * Developer should use any other way of authenticating the user, like pin or password to authenticate the user.
-     * <p>
-     * See:'https://developer.android.com/reference/android/hardware/fingerprint/FingerprintManager.AuthenticationCallback.html#onAuthenticationError(int, java.lang.CharSequence)'
-     */
-    static final int NON_RECOVERABLE_ERROR = 566;
-
-    /**
-     * Called when a fingerprint is valid but not recognized.
-     * <p>
-     * See:'https://developer.android.com/reference/android/hardware/fingerprint/FingerprintManager.AuthenticationCallback.html#onAuthenticationError(int, java.lang.CharSequence)'
-     */
-    static final int CANNOT_RECOGNIZE_ERROR = 456;
-
+final class FingerPrintAuthHelper implements BiometricProvider {
     private static final String KEY_NAME = UUID.randomUUID().toString();
 
     //error messages
@@ -92,9 +68,9 @@ final class FingerPrintAuthHelper {
     private Context mContext;
 
     /**
-     * {@link FingerPrintAuthCallback} to notify the parent caller about the authentication status.
+     * {@link BiometricProvider.Callback} to notify the parent caller about the authentication status.
      */
-    private FingerPrintAuthCallback mCallback;
+    private BiometricProvider.Callback mCallback;
 
     /**
      * {@link CancellationSignal} for finger print authentication.
@@ -109,11 +85,9 @@ final class FingerPrintAuthHelper {
     /**
      * Public constructor.
      *
-     * @param context  instance of the caller.
-     * @param callback {@link FingerPrintAuthCallback} to get notify whenever authentication success/fails.
+     * @param context instance of the caller.
      */
-    FingerPrintAuthHelper(@NonNull Context context, @NonNull FingerPrintAuthCallback callback) {
-        mCallback = callback;
+    FingerPrintAuthHelper(@NonNull Context context) {
         mContext = context;
     }
 
@@ -199,7 +173,7 @@ final class FingerPrintAuthHelper {
         boolean isKeyGenerated = generateKey();
 
         if (!isKeyGenerated) {
-            mCallback.onFingerprintAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_GENERATE_KEY);
+            mCallback.onBiometricAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_GENERATE_KEY);
             return false;
         }
 
@@ -210,7 +184,7 @@ final class FingerPrintAuthHelper {
                             + KeyProperties.ENCRYPTION_PADDING_PKCS7);
         } catch (NoSuchAlgorithmException |
                 NoSuchPaddingException e) {
-            mCallback.onFingerprintAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_GENERATE_KEY);
+            mCallback.onBiometricAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_GENERATE_KEY);
             return false;
         }
 
@@ -220,12 +194,12 @@ final class FingerPrintAuthHelper {
             mCipher.init(Cipher.ENCRYPT_MODE, key);
             return true;
         } catch (KeyPermanentlyInvalidatedException e) {
-            mCallback.onFingerprintAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_INIT_CHIPPER);
+            mCallback.onBiometricAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_INIT_CHIPPER);
             return false;
         } catch (KeyStoreException | CertificateException
                 | UnrecoverableKeyException | IOException
                 | NoSuchAlgorithmException | InvalidKeyException e) {
-            mCallback.onFingerprintAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_INIT_CHIPPER);
+            mCallback.onBiometricAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_INIT_CHIPPER);
             return false;
         }
     }
@@ -236,14 +210,23 @@ final class FingerPrintAuthHelper {
         return cipherInit() ? new FingerprintManager.CryptoObject(mCipher) : null;
     }
 
+    @Override
+    public boolean isAvailable() {
+        return checkFingerPrintAvailability(mContext);
+    }
+
     /**
      * Start the finger print authentication by enabling the finger print sensor.
      * Note: Use this function in the onResume() of the activity/fragment. Never forget to call {@link #stopAuth()}
      * in onPause() of the activity/fragment.
+     *
+     * @param callback {@link BiometricProvider.Callback} to get notify whenever authentication success/fails.
      */
     @TargetApi(Build.VERSION_CODES.M)
-    void startAuth() {
-        if (isScanning) stopAuth();
+    @Override
+    public void startAuth(@NonNull BiometricProvider.Callback callback) {
+        if (isScanning) return;     //Already listening. Don't restart the session.
+        mCallback = callback;
 
         //check if the device supports the finger print hardware?
         if (!checkFingerPrintAvailability(mContext)) return;
@@ -252,34 +235,51 @@ final class FingerPrintAuthHelper {
 
         FingerprintManager.CryptoObject cryptoObject = getCryptoObject();
         if (cryptoObject == null) {
-            mCallback.onFingerprintAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_INIT_CHIPPER);
+            mCallback.onBiometricAuthFailed(NON_RECOVERABLE_ERROR, ERROR_FAILED_TO_INIT_CHIPPER);
         } else {
-            mCancellationSignal = new CancellationSignal();
+            //Each session remembers its own signal. The framework may still deliver the callbacks
+            //of a stopped session after the new one started, so those are ignored.
+            final CancellationSignal cancellationSignal = new CancellationSignal();
+            mCancellationSignal = cancellationSignal;
             //noinspection MissingPermission
             fingerprintManager.authenticate(cryptoObject,
-                    mCancellationSignal,
+                    cancellationSignal,
                     0,
                     new FingerprintManager.AuthenticationCallback() {
                         @Override
                         public void onAuthenticationError(int errMsgId, CharSequence errString) {
-                            mCallback.onFingerprintAuthFailed(NON_RECOVERABLE_ERROR, errString.toString());
+                            if (cancellationSignal != mCancellationSignal) return;
+
+                            //The session is over. No further callbacks will be made.
+                            onSessionEnded();
+
+                            //Cancelled by the stopAuth(). That's not a failed authentication.
+                            if (errMsgId == FingerprintManager.FINGERPRINT_ERROR_CANCELED) return;
+                            mCallback.onBiometricAuthFailed(NON_RECOVERABLE_ERROR, errString.toString());
                         }
 
                         @Override
                         public void onAuthenticationHelp(int helpMsgId, CharSequence helpString) {
-                            mCallback.onFingerprintAuthFailed(RECOVERABLE_ERROR, helpString.toString());
+                            if (cancellationSignal != mCancellationSignal) return;
+                            mCallback.onBiometricAuthFailed(RECOVERABLE_ERROR, helpString.toString());
                         }
 
                         @Override
                         public void onAuthenticationFailed() {
-                            mCallback.onFingerprintAuthFailed(CANNOT_RECOGNIZE_ERROR, "Cannot recognize the fingerprint.");
+                            if (cancellationSignal != mCancellationSignal) return;
+                            mCallback.onBiometricAuthFailed(CANNOT_RECOGNIZE_ERROR, "Cannot recognize the fingerprint.");
                         }
 
                         @Override
                         public void onAuthenticationSucceeded(FingerprintManager.AuthenticationResult result) {
-                            mCallback.onFingerprintAuthSuccess(result.getCryptoObject());
+                            if (cancellationSignal != mCancellationSignal) return;
+
+                            //The session is over. No further callbacks will be made.
+                            onSessionEnded();
+                            mCallback.onBiometricAuthSuccess();
                         }
                     }, null);
+            isScanning = true;
         }
     }
 
@@ -287,38 +287,29 @@ final class FingerPrintAuthHelper {
      * Stop the finger print authentication.
      */
     @RequiresApi(api = Build.VERSION_CODES.JELLY_BEAN)
-    void stopAuth() {
+    @Override
+    public void stopAuth() {
         if (mCancellationSignal != null) {
-            isScanning = true;
             mCancellationSignal.cancel();
             mCancellationSignal = null;
         }
+        isScanning = false;
     }
 
     /**
-     * @return true if currently listening the for the finger print.
+     * Mark the current session as finished after the {@link FingerprintManager} delivered the final
+     * callback. The sensor is already released by the framework, so there is nothing to cancel.
      */
-    public boolean isScanning() {
-        return isScanning;
+    private void onSessionEnded() {
+        mCancellationSignal = null;
+        isScanning = false;
     }
 
     /**
-     * This is the callback listener to notify the finger print authentication result to the parent.
+     * @return true if currently listening the for the finger print.
      */
-    interface FingerPrintAuthCallback {
-        /**
-         * This method will occur whenever  user authentication is successful.
-         *
-         * @param cryptoObject {@link FingerprintManager.CryptoObject} associated with the scanned finger print.
-         */
-        void onFingerprintAuthSuccess(FingerprintManager.CryptoObject cryptoObject);
-
-        /**
-         * This method will execute whenever any error occurs during the authentication.
-         *
-         * @param errorCode    Error code for the error occurred. These error code will be from error codes.
-         * @param errorMessage A human-readable error string that can be shown in UI. This may be null.
-         */
-        void onFingerprintAuthFailed(int errorCode, @Nullable String errorMessage);
+    @Override
+    public boolean isScanning() {
+        return isScanning;
     }
 }
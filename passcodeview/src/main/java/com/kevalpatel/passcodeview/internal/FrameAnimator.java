@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.animation.TimeInterpolator;
+import android.support.annotation.Nullable;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Single animation effect advanced by the {@link AnimationDriver} of the {@link BasePasscodeView}.
+ * Unlike {@link android.animation.ValueAnimator}, this doesn't register its own frame callback or
+ * invalidate the view. The driver advances all the running effects in one pass and invalidates
+ * the view once per frame.
+ * <p>
+ * The same instance can be started again after it ends.
+ *
+ * @author agent
+ * @see AnimationDriver
+ */
+public abstract class FrameAnimator {
+    /**
+     * Duration of the animation in milliseconds.
+     */
+    private final long mDuration;
+
+    /**
+     * {@link TimeInterpolator} for the animation. Null means linear.
+     */
+    @Nullable
+    private final TimeInterpolator mInterpolator;
+
+    /**
+     * Frame time in milliseconds when the animation started. -1 until the first frame.
+     */
+    private long mStartTime = -1;
+
+    /**
+     * True if the animation is running.
+     */
+    private boolean isRunning = false;
+
+    /**
+     * Public constructor.
+     *
+     * @param duration     Duration of the animation in milliseconds.
+     * @param interpolator {@link TimeInterpolator} for the animation or null for linear animation.
+     */
+    public FrameAnimator(final long duration, @Nullable final TimeInterpolator interpolator) {
+        mDuration = duration;
+        mInterpolator = interpolator;
+    }
+
+    /**
+     * Update the animated state. The view will be invalidated by the {@link AnimationDriver} after
+     * all the running animators are updated.
+     *
+     * @param fraction Interpolated fraction of the animation.
+     */
+    protected abstract void onUpdate(final float fraction);
+
+    /**
+     * Called when the animation ends or gets cancelled. Restore the idle state here.
+     *
+     * @param isCancelled True if the animation is cancelled before it could finish.
+     */
+    protected void onEnd(final boolean isCancelled) {
+        //Do nothing
+    }
+
+    /**
+     * @return True if the animation is running.
+     */
+    public final boolean isRunning() {
+        return isRunning;
+    }
+
+    void onStart() {
+        isRunning = true;
+        mStartTime = -1;
+        onUpdate(interpolate(0f));
+    }
+
+    /**
+     * Advance the animation to the given frame time.
+     *
+     * @param frameTimeMills Frame time in milliseconds.
+     * @return True if the animation is finished.
+     */
+    boolean doFrame(final long frameTimeMills) {
+        if (mStartTime < 0) mStartTime = frameTimeMills;
+
+        final float fraction = mDuration <= 0
+                ? 1f
+                : Math.min(1f, (frameTimeMills - mStartTime) / (float) mDuration);
+        onUpdate(interpolate(fraction));
+        return fraction >= 1f;
+    }
+
+    void finish(final boolean isCancelled) {
+        isRunning = false;
+        onEnd(isCancelled);
+    }
+
+    private float interpolate(final float fraction) {
+        return mInterpolator == null ? fraction : mInterpolator.getInterpolation(fraction);
+    }
+}
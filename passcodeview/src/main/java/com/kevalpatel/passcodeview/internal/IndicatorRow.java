@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.support.annotation.NonNull;
+
+import com.kevalpatel.passcodeview.indicators.Indicator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Compact renderer for the row of {@link Indicator}s in the {@link BoxTitleIndicator}. The centers
+ * and the state of the indicators are kept in primitive arrays and the paints for each state are
+ * resolved once per layout, so the whole row is drawn in one pass over the arrays.
+ * <p>
+ * Only the indicators which provide {@link Indicator#getStatePaint(byte)} are drawn this way. Other
+ * (custom) indicators are drawn by {@link Indicator#draw(Canvas, boolean)} and get the
+ * {@link Indicator#onAuthFailed()} and {@link Indicator#onAuthSuccess()} callbacks.
+ *
+ * @author agent
+ */
+final class IndicatorRow {
+    /**
+     * Number of the states in {@link Indicator}.
+     */
+    private static final int NO_OF_STATES = 4;
+
+    /**
+     * All the indicators of the row.
+     */
+    @NonNull
+    private List<Indicator> mIndicators = new ArrayList<>();
+
+    /**
+     * True for the indicators drawn from {@link #mStatePaints}.
+     */
+    @NonNull
+    private boolean[] isBatched = new boolean[0];
+
+    @NonNull
+    private float[] mCenterX = new float[0];
+    private float mCenterY;
+    private float mRadius;
+
+    /**
+     * State of each indicator.
+     *
+     * @see Indicator#STATE_EMPTY
+     */
+    @NonNull
+    private byte[] mStates = new byte[0];
+
+    /**
+     * Paints of the indicators indexed by the state.
+     */
+    @NonNull
+    private final Paint[] mStatePaints = new Paint[NO_OF_STATES];
+
+    /**
+     * Number of the filled indicators.
+     */
+    private int mFilledCount;
+
+    /**
+     * {@link Indicator#STATE_ERROR} or {@link Indicator#STATE_SUCCESS} to display on all the
+     * indicators. {@link Indicator#STATE_EMPTY} if no result is displayed.
+     */
+    private byte mResultState = Indicator.STATE_EMPTY;
+
+    /**
+     * Set the indicators to draw. All the indicators should be built by the same builder, so the
+     * batched ones share the paints.
+     *
+     * @param indicators All the indicators of the row.
+     * @param geometry   {@link BoxGeometry} of the indicators.
+     */
+    void setIndicators(@NonNull final List<Indicator> indicators, @NonNull final BoxGeometry geometry) {
+        final int count = indicators.size();
+        mIndicators = indicators;
+        isBatched = new boolean[count];
+        mCenterX = new float[count];
+        mStates = new byte[count];
+        if (count > 0) mCenterY = geometry.getCenterY(0);
+
+        boolean isPaintResolved = false;
+        for (int i = 0; i < count; i++) {
+            mCenterX[i] = geometry.getCenterX(i);
+
+            final Indicator indicator = indicators.get(i);
+            isBatched[i] = indicator.getStatePaint(Indicator.STATE_EMPTY) != null;
+            if (isBatched[i] && !isPaintResolved) {
+                mRadius = indicator.getRadius();
+                for (byte state = 0; state < NO_OF_STATES; state++) {
+                    mStatePaints[state] = indicator.getStatePaint(state);
+                }
+                isPaintResolved = true;
+            }
+        }
+        updateStates();
+    }
+
+    int getCount() {
+        return mStates.length;
+    }
+
+    void setFilledCount(final int filledCount) {
+        mFilledCount = filledCount;
+        updateStates();
+    }
+
+    void setResultState(final byte resultState) {
+        mResultState = resultState;
+        updateStates();
+
+        //Custom indicators display the result by themselves.
+        for (int i = 0; i < isBatched.length; i++) {
+            if (isBatched[i]) continue;
+
+            if (resultState == Indicator.STATE_ERROR) {
+                mIndicators.get(i).onAuthFailed();
+            } else if (resultState == Indicator.STATE_SUCCESS) {
+                mIndicators.get(i).onAuthSuccess();
+            }
+        }
+    }
+
+    private void updateStates() {
+        for (int i = 0; i < mStates.length; i++) {
+            if (mResultState != Indicator.STATE_EMPTY) {
+                mStates[i] = mResultState;
+            } else {
+                mStates[i] = i < mFilledCount ? Indicator.STATE_FILLED : Indicator.STATE_EMPTY;
+            }
+        }
+    }
+
+    void draw(@NonNull final Canvas canvas) {
+        for (int i = 0; i < mStates.length; i++) {
+            if (isBatched[i]) {
+                canvas.drawCircle(mCenterX[i], mCenterY, mRadius, mStatePaints[mStates[i]]);
+            } else {
+                mIndicators.get(i).draw(canvas, i < mFilledCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.graphics.Paint;
+import android.support.annotation.NonNull;
+import android.text.TextPaint;
+import android.util.LruCache;
+import android.util.SparseArray;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Finds the largest text size at which the key title fits into the key. Text metrics scale
+ * linearly with the text size, so the title is measured once at the reference size and the result
+ * is scaled. Results are cached by the title, the size of the box and the typeface, so building the
+ * keypad again for the same size doesn't query the text metrics.
+ *
+ * @author agent
+ */
+public final class KeyTextFitter {
+    /**
+     * Part of the key the title text can occupy in each direction.
+     */
+    public static final float FILL_RATIO = 0.6f;
+
+    /**
+     * Text size used to measure the titles.
+     */
+    private static final float REFERENCE_TEXT_SIZE = 100f;
+
+    /**
+     * Number of the fits to remember. A keypad needs twelve, so this covers a few configurations.
+     */
+    private static final int MAX_FITS = 64;
+
+    @NonNull
+    private static final LruCache<String, Fit> sFits = new LruCache<>(MAX_FITS);
+
+    /**
+     * Scratch paint to measure the titles. Guarded by the class lock.
+     */
+    @NonNull
+    private static final TextPaint sMeasurePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    private KeyTextFitter() {
+    }
+
+    /**
+     * Fit the title into the box.
+     *
+     * @param textPaint Paint of the key title. Only the typeface and the style are used.
+     * @param title     Title of the key.
+     * @param boxWidth  Width available for the title.
+     * @param boxHeight Height available for the title.
+     * @return {@link Fit} with the text size and the baseline offset.
+     */
+    @NonNull
+    public static synchronized Fit fit(@NonNull final TextPaint textPaint,
+                                       @NonNull final String title,
+                                       final int boxWidth,
+                                       final int boxHeight) {
+        final String key = title + '|' + boxWidth + '|' + boxHeight
+                + '|' + System.identityHashCode(textPaint.getTypeface())
+                + '|' + textPaint.isFakeBoldText();
+
+        Fit fit = sFits.get(key);
+        if (fit == null) {
+            sMeasurePaint.set(textPaint);
+            sMeasurePaint.setTextSize(REFERENCE_TEXT_SIZE);
+
+            final float textWidth = sMeasurePaint.measureText(title);
+            final float textHeight = sMeasurePaint.descent() - sMeasurePaint.ascent();
+            float scale = boxHeight / textHeight;
+            if (textWidth > 0) scale = Math.min(scale, boxWidth / textWidth);
+
+            final int textSize = Math.max(1, (int) (REFERENCE_TEXT_SIZE * scale));
+            sMeasurePaint.setTextSize(textSize);
+            fit = new Fit(textSize, -(sMeasurePaint.descent() + sMeasurePaint.ascent()) / 2);
+            sFits.put(key, fit);
+        }
+        return fit;
+    }
+
+    /**
+     * Get the copy of the paint with the text size. Keys with the same fitted size share the paint.
+     *
+     * @param paints    Paints already created by the key builder, indexed by the text size.
+     * @param textPaint Paint of the key title.
+     * @param textSize  Fitted text size.
+     * @return {@link TextPaint} with the text size.
+     */
+    @NonNull
+    public static TextPaint obtainPaint(@NonNull final SparseArray<TextPaint> paints,
+                                        @NonNull final TextPaint textPaint,
+                                        final int textSize) {
+        TextPaint paint = paints.get(textSize);
+        if (paint == null) {
+            paint = new TextPaint(textPaint);
+            paint.setTextSize(textSize);
+            paints.put(textSize, paint);
+        }
+        return paint;
+    }
+
+    /**
+     * Text size and the baseline offset for the title.
+     */
+    public static final class Fit {
+        private final int mTextSize;
+        private final float mCenterOffset;
+
+        private Fit(final int textSize, final float centerOffset) {
+            mTextSize = textSize;
+            mCenterOffset = centerOffset;
+        }
+
+        public int getTextSize() {
+            return mTextSize;
+        }
+
+        /**
+         * @return Vertical offset from the center of the key to the baseline of the title.
+         */
+        public float getCenterOffset() {
+            return mCenterOffset;
+        }
+    }
+}
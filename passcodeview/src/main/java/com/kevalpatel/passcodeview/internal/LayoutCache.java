@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Small LRU of the geometry a box computed for the recent view sizes. Foldables and multi-window
+ * resizes usually switch between a few known sizes, so the box can reuse the geometry instead of
+ * building everything again.
+ * <p>
+ * Entries are keyed by {@link #key(int, int, boolean, boolean)}. Everything else the geometry
+ * depends on (builders, key names, dimensions) invalidates the whole cache through
+ * {@link BasePasscodeView#invalidateLayout()}.
+ *
+ * @param <T> Type of the geometry.
+ * @author agent
+ */
+final class LayoutCache<T> {
+    /**
+     * Number of the sizes to remember.
+     */
+    private static final int MAX_LAYOUTS = 4;
+
+    @NonNull
+    private final LruCache<Long, T> mLayouts = new LruCache<>(MAX_LAYOUTS);
+
+    /**
+     * {@link BasePasscodeView#getLayoutGeneration()} the cached entries were computed in.
+     */
+    private int mGeneration = -1;
+
+    /**
+     * Build the key for the layout.
+     *
+     * @param width              Width of the view.
+     * @param height             Height of the view.
+     * @param fingerprintVisible True if the fingerprint box is visible.
+     * @param oneHand            True if the one hand operation is enabled.
+     * @return Key of the layout.
+     */
+    static long key(final int width,
+                    final int height,
+                    final boolean fingerprintVisible,
+                    final boolean oneHand) {
+        return ((long) width << 32)
+                | ((long) (height & 0x3FFFFFFF) << 2)
+                | (fingerprintVisible ? 2 : 0)
+                | (oneHand ? 1 : 0);
+    }
+
+    /**
+     * @param view {@link BasePasscodeView} the geometry belongs to.
+     * @param key  Key from {@link #key(int, int, boolean, boolean)}.
+     * @return Cached geometry or null if the geometry for the key isn't computed or the layout was
+     * invalidated after computing it.
+     */
+    @Nullable
+    T get(@NonNull final BasePasscodeView view, final long key) {
+        if (mGeneration != view.getLayoutGeneration()) {
+            mLayouts.evictAll();
+            mGeneration = view.getLayoutGeneration();
+        }
+        return mLayouts.get(key);
+    }
+
+    void put(final long key, @NonNull final T layout) {
+        mLayouts.put(key, layout);
+    }
+}
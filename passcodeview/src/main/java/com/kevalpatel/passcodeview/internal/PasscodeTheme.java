@@ -0,0 +1,275 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.support.annotation.ColorInt;
+import android.support.annotation.Dimension;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.util.LruCache;
+
+import com.kevalpatel.passcodeview.Constants;
+import com.kevalpatel.passcodeview.R;
+import com.kevalpatel.passcodeview.Utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Immutable set of all the XML attributes of {@link com.kevalpatel.passcodeview.PinView} and
+ * {@link com.kevalpatel.passcodeview.PatternView}, with the defaults already resolved. All the
+ * attributes are parsed from a single {@link TypedArray}. Parsed themes are cached per
+ * {@link Resources.Theme} and {@link Configuration} by the style resource and the raw attribute values, so inflating the
+ * same layout again doesn't touch the {@link TypedArray} at all.
+ *
+ * @author agent
+ */
+public final class PasscodeTheme {
+    /**
+     * All the attributes of the view, sorted as {@link Resources.Theme#obtainStyledAttributes(AttributeSet, int[], int, int)}
+     * requires.
+     */
+    private static final int[] ATTRS = sortedAttrs(
+            R.attr.giveTactileFeedback,
+            R.attr.giveAudioFeedback,
+            R.attr.fingerprintEnable,
+            R.attr.fingerprintDefaultText,
+            R.attr.fingerprintTextColor,
+            R.attr.fingerprintTextSize,
+            R.attr.dividerColor,
+            R.attr.pin_titleText,
+            R.attr.pin_titleTextColor,
+            R.attr.titleText,
+            R.attr.titleTextColor,
+            R.attr.noOfColumns,
+            R.attr.noOfRows,
+            R.attr.patternLineColor);
+
+    /**
+     * Number of the configurations to remember per {@link Resources.Theme}.
+     */
+    private static final int MAX_CONFIGURATIONS = 4;
+
+    /**
+     * Parsed themes by the {@link Resources.Theme} and the {@link Configuration} they were resolved
+     * against. Values of the attributes may refer theme attributes, so the same layout parses
+     * differently in different themes. Activities handling the configuration changes themselves keep
+     * the same theme instance, so the configuration is a part of the key as well (e.g. the text sizes
+     * change with the font scale). Only the last few configurations of each theme are kept, so
+     * rotating or resizing a long-lived activity doesn't grow the cache.
+     */
+    @NonNull
+    private static final WeakHashMap<Resources.Theme, LruCache<Configuration, Map<String, PasscodeTheme>>> sCache
+            = new WeakHashMap<>();
+
+    private final boolean mIsTactileFeedbackEnabled;
+    private final boolean mIsAudioFeedbackEnabled;
+    @ColorInt
+    private final int mDividerColor;
+
+    private final boolean mIsFingerprintEnabled;
+    @Nullable
+    private final String mFingerprintDefaultText;
+    @ColorInt
+    private final int mFingerprintTextColor;
+    @Dimension
+    private final float mFingerprintTextSize;
+
+    @Nullable
+    private final String mPinTitleText;
+    @ColorInt
+    private final int mPinTitleTextColor;
+
+    @Nullable
+    private final String mPatternTitleText;
+    @ColorInt
+    private final int mPatternTitleTextColor;
+    private final int mNoOfColumns;
+    private final int mNoOfRows;
+    @ColorInt
+    private final int mPatternLineColor;
+
+    @SuppressWarnings("deprecation")
+    private PasscodeTheme(@NonNull final Context context, @NonNull final TypedArray a) {
+        final int defTextColor = Utils.getColorCompat(context, R.color.lib_key_default_color);
+
+        mIsTactileFeedbackEnabled = a.getBoolean(indexOf(R.attr.giveTactileFeedback), true);
+        mIsAudioFeedbackEnabled = a.getBoolean(indexOf(R.attr.giveAudioFeedback), false);
+        mDividerColor = a.getColor(indexOf(R.attr.dividerColor),
+                Utils.getColorCompat(context, R.color.lib_divider_color));
+
+        mIsFingerprintEnabled = a.getBoolean(indexOf(R.attr.fingerprintEnable), true);
+        mFingerprintDefaultText = a.getString(indexOf(R.attr.fingerprintDefaultText));
+        mFingerprintTextColor = a.getColor(indexOf(R.attr.fingerprintTextColor), defTextColor);
+        mFingerprintTextSize = a.getDimension(indexOf(R.attr.fingerprintTextSize),
+                (int) DimensionSnapshot.obtain(context.getResources()).getFingerprintStatusTextSize());
+
+        mPinTitleText = a.getString(indexOf(R.attr.pin_titleText));
+        mPinTitleTextColor = a.getColor(indexOf(R.attr.pin_titleTextColor), defTextColor);
+
+        mPatternTitleText = a.getString(indexOf(R.attr.titleText));
+        mPatternTitleTextColor = a.getColor(indexOf(R.attr.titleTextColor), defTextColor);
+        mNoOfColumns = a.getInt(indexOf(R.attr.noOfColumns), Constants.DEF_PATTERN_LENGTH);
+        mNoOfRows = a.getInt(indexOf(R.attr.noOfRows), Constants.DEF_PATTERN_LENGTH);
+        mPatternLineColor = a.getColor(indexOf(R.attr.patternLineColor),
+                context.getResources().getColor(android.R.color.holo_green_dark));
+    }
+
+    /**
+     * Get the parsed theme for the attributes. This parses the attributes only if the same style
+     * with the same attribute values wasn't parsed before in the theme and the configuration of the
+     * context.
+     *
+     * @param context {@link Context} of the view.
+     * @param attrs   {@link AttributeSet} received from the XML.
+     * @return Parsed {@link PasscodeTheme}.
+     */
+    @NonNull
+    @MainThread
+    public static PasscodeTheme obtain(@NonNull final Context context,
+                                       @NonNull final AttributeSet attrs) {
+        final Resources.Theme theme = context.getTheme();
+        final Configuration configuration = context.getResources().getConfiguration();
+        final String key = buildCacheKey(attrs);
+
+        LruCache<Configuration, Map<String, PasscodeTheme>> configCache = sCache.get(theme);
+        if (configCache == null) {
+            configCache = new LruCache<>(MAX_CONFIGURATIONS);
+            sCache.put(theme, configCache);
+        }
+
+        Map<String, PasscodeTheme> themeCache = configCache.get(configuration);
+        if (themeCache == null) {
+            themeCache = new HashMap<>();
+
+            //Resources update the configuration in place, so store the copy as the key.
+            configCache.put(new Configuration(configuration), themeCache);
+        }
+
+        PasscodeTheme passcodeTheme = themeCache.get(key);
+        if (passcodeTheme == null) {
+            final TypedArray a = theme.obtainStyledAttributes(attrs, ATTRS, 0, 0);
+            try {
+                passcodeTheme = new PasscodeTheme(context, a);
+            } finally {
+                a.recycle();
+            }
+            themeCache.put(key, passcodeTheme);
+        }
+        return passcodeTheme;
+    }
+
+    /**
+     * Build the key from the style resource and the raw values of the view attributes. Raw values
+     * are the strings from the layout (e.g. "@color/red" or "16sp"), so reading them is cheap.
+     */
+    @NonNull
+    private static String buildCacheKey(@NonNull final AttributeSet attrs) {
+        final StringBuilder key = new StringBuilder().append(attrs.getStyleAttribute());
+        for (int i = 0; i < attrs.getAttributeCount(); i++) {
+            final int nameRes = attrs.getAttributeNameResource(i);
+            if (Arrays.binarySearch(ATTRS, nameRes) < 0) continue;
+
+            key.append('|').append(nameRes).append('=').append(attrs.getAttributeValue(i));
+        }
+        return key.toString();
+    }
+
+    @NonNull
+    private static int[] sortedAttrs(@NonNull final int... attrs) {
+        Arrays.sort(attrs);
+        return attrs;
+    }
+
+    private static int indexOf(final int attr) {
+        return Arrays.binarySearch(ATTRS, attr);
+    }
+
+    ///////////////// GETTERS //////////////
+
+    public boolean isTactileFeedbackEnabled() {
+        return mIsTactileFeedbackEnabled;
+    }
+
+    public boolean isAudioFeedbackEnabled() {
+        return mIsAudioFeedbackEnabled;
+    }
+
+    @ColorInt
+    public int getDividerColor() {
+        return mDividerColor;
+    }
+
+    public boolean isFingerprintEnabled() {
+        return mIsFingerprintEnabled;
+    }
+
+    @Nullable
+    public String getFingerprintDefaultText() {
+        return mFingerprintDefaultText;
+    }
+
+    @ColorInt
+    public int getFingerprintTextColor() {
+        return mFingerprintTextColor;
+    }
+
+    @Dimension
+    public float getFingerprintTextSize() {
+        return mFingerprintTextSize;
+    }
+
+    @Nullable
+    public String getPinTitleText() {
+        return mPinTitleText;
+    }
+
+    @ColorInt
+    public int getPinTitleTextColor() {
+        return mPinTitleTextColor;
+    }
+
+    @Nullable
+    public String getPatternTitleText() {
+        return mPatternTitleText;
+    }
+
+    @ColorInt
+    public int getPatternTitleTextColor() {
+        return mPatternTitleTextColor;
+    }
+
+    public int getNoOfColumns() {
+        return mNoOfColumns;
+    }
+
+    public int getNoOfRows() {
+        return mNoOfRows;
+    }
+
+    @ColorInt
+    public int getPatternLineColor() {
+        return mPatternLineColor;
+    }
+}
@@ -17,7 +17,6 @@ package com.kevalpatel.passcodeview.internal;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.support.annotation.NonNull;
-import android.util.AttributeSet;
 
 /**
  * Created by Kevalpatel2106 on 05-Feb-18.
@@ -33,7 +32,7 @@ public interface PasscodeViewLifeCycle {
 
     void preparePaint();
 
-    void parseTypeArr(@NonNull AttributeSet typedArray);
+    void applyTheme(@NonNull PasscodeTheme theme);
 
     void drawView(@NonNull Canvas canvas);
 
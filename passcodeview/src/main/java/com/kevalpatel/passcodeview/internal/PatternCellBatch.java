@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.support.annotation.NonNull;
+
+import com.kevalpatel.passcodeview.patternCells.PatternCell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Batched renderer for the {@link PatternCell}s of the {@link BoxPattern}. Cells that provide the
+ * {@link PatternCell#getBatchPaint()} are grouped by the paint and each group is drawn with a
+ * single draw call: filled cells with {@link Canvas#drawPoints(float[], int, int, Paint)} and the
+ * rings with one cached {@link Path}. Cells without the batch paint are drawn by
+ * {@link PatternCell#draw(Canvas)}.
+ *
+ * @author agent
+ */
+final class PatternCellBatch {
+
+    /**
+     * Groups of the cells drawn in the last frame. Reused between the frames.
+     */
+    @NonNull
+    private final ArrayList<Group> mGroups = new ArrayList<>();
+
+    /**
+     * Draw all the cells.
+     *
+     * @param canvas Canvas to draw.
+     * @param cells  All the cells of the box.
+     */
+    void draw(@NonNull final Canvas canvas, @NonNull final List<PatternCell> cells) {
+        for (int i = 0; i < mGroups.size(); i++) mGroups.get(i).mCount = 0;
+
+        for (int i = 0; i < cells.size(); i++) {
+            final PatternCell cell = cells.get(i);
+            final Paint paint = cell.getBatchPaint();
+
+            if (paint == null) {
+                cell.draw(canvas);
+            } else {
+                findGroup(paint, cell.getBatchRadius(), cells.size())
+                        .add(cell.getCenterX(), cell.getCenterY());
+            }
+        }
+
+        for (int i = mGroups.size() - 1; i >= 0; i--) {
+            final Group group = mGroups.get(i);
+            if (group.mCount == 0) {
+                //No cell uses this paint anymore.
+                mGroups.remove(i);
+            } else {
+                group.draw(canvas);
+            }
+        }
+    }
+
+    /**
+     * Find the group for the paint and the radius or create the new one.
+     */
+    @NonNull
+    private Group findGroup(@NonNull final Paint paint, final float radius, final int maxCells) {
+        for (int i = 0; i < mGroups.size(); i++) {
+            final Group group = mGroups.get(i);
+            if (group.mPaint == paint && group.mRadius == radius) return group;
+        }
+
+        final Group group = new Group(paint, radius, maxCells);
+        mGroups.add(group);
+        return group;
+    }
+
+    /**
+     * Cells drawn with the same paint.
+     */
+    private static final class Group {
+        @NonNull
+        private final Paint mPaint;
+        private final float mRadius;
+
+        /**
+         * Centers of the cells in this frame.
+         */
+        @NonNull
+        private float[] mPoints;
+        private int mCount;
+
+        /**
+         * Rings of the cells. Rebuilt only if the centers change.
+         */
+        @NonNull
+        private final Path mRingPath = new Path();
+        @NonNull
+        private float[] mRingPoints = new float[0];
+
+        private Group(@NonNull final Paint paint, final float radius, final int maxCells) {
+            mPaint = paint;
+            mRadius = radius;
+            mPoints = new float[maxCells * 2];
+        }
+
+        private void add(final float centerX, final float centerY) {
+            if (mCount + 2 > mPoints.length) mPoints = Arrays.copyOf(mPoints, mCount * 2 + 2);
+            mPoints[mCount++] = centerX;
+            mPoints[mCount++] = centerY;
+        }
+
+        private void draw(@NonNull final Canvas canvas) {
+            if (mCount == 0) return;
+
+            if (mPaint.getStyle() != Paint.Style.STROKE) {
+                canvas.drawPoints(mPoints, 0, mCount, mPaint);
+                return;
+            }
+
+            if (!isRingPathValid()) {
+                mRingPoints = Arrays.copyOf(mPoints, mCount);
+                mRingPath.rewind();
+                for (int i = 0; i < mCount; i += 2) {
+                    mRingPath.addCircle(mPoints[i], mPoints[i + 1], mRadius, Path.Direction.CW);
+                }
+            }
+            canvas.drawPath(mRingPath, mPaint);
+        }
+
+        /**
+         * @return True if the {@link #mRingPath} was built for the same centers.
+         */
+        private boolean isRingPathValid() {
+            if (mRingPoints.length != mCount) return false;
+            for (int i = 0; i < mCount; i++) {
+                if (mRingPoints[i] != mPoints[i]) return false;
+            }
+            return true;
+        }
+    }
+}
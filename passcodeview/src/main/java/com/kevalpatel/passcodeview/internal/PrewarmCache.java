@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.text.TextPaint;
+import android.util.SparseArray;
+
+import com.kevalpatel.passcodeview.R;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Process wide holder of the state prepared by {@link com.kevalpatel.passcodeview.PasscodeViewPrewarmer}.
+ * The state is prepared on the background thread and published at once. Views created after that
+ * adopt it instead of decoding the icons, resolving the dimensions and measuring the glyphs on the
+ * main thread. If nothing is prewarmed or the density/font scale changed after prewarming,
+ * everything is resolved on the calling thread as usual.
+ * <p>
+ * Only the state which doesn't depend on the view is prewarmed: the icons, the
+ * {@link DimensionSnapshot} and the default key title metrics. {@link PasscodeTheme} needs the
+ * attributes and the theme of the view, and the paints and the keypad geometry need the view size,
+ * so those are still prepared when the view is created and measured.
+ *
+ * @author agent
+ */
+public final class PrewarmCache {
+    /**
+     * Digits to measure while prewarming. This loads the glyphs of the key title typeface.
+     */
+    private static final String PREWARM_GLYPHS = "0123456789";
+
+    /**
+     * Currently published {@link Snapshot}. Null if nothing is prewarmed.
+     */
+    @Nullable
+    private static volatile Snapshot sSnapshot;
+
+    private PrewarmCache() {
+    }
+
+    /**
+     * Decode the icons, resolve the dimensions and measure the glyphs for the current configuration
+     * of the resources. This does nothing if the state for the same configuration is already
+     * prewarmed.
+     *
+     * @param resources {@link Resources} of the context the views will be created in. Views look up
+     *                  the dimensions with their own configuration, so the application resources
+     *                  may not match it.
+     */
+    @WorkerThread
+    public static void prewarm(@NonNull final Resources resources) {
+        if (findSnapshot(resources) != null) return;
+
+        final Snapshot snapshot = new Snapshot(resources);
+
+        //Resolve the dimensions. DimensionSnapshot keeps them for this configuration, so the views
+        //created in the same configuration get them without touching the resources.
+        final DimensionSnapshot dimens = DimensionSnapshot.obtain(resources);
+
+        //Decode icons
+        for (final int iconRes : new int[]{R.drawable.ic_back_space, R.drawable.ic_fingerprint}) {
+            final Drawable drawable = resources.getDrawable(iconRes);
+            if (drawable != null && drawable.getConstantState() != null)
+                snapshot.mIcons.put(iconRes, drawable.getConstantState());
+        }
+
+        //Measure the glyphs of the default key title.
+        final TextPaint keyTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        keyTextPaint.setTextSize(dimens.getKeyTextSize());
+        keyTextPaint.setFakeBoldText(true);
+        keyTextPaint.setTextAlign(Paint.Align.CENTER);
+        keyTextPaint.measureText(PREWARM_GLYPHS);
+        snapshot.mKeyTextSize = keyTextPaint.getTextSize();
+        snapshot.mKeyTextCenterOffset = calculateTextCenterOffset(keyTextPaint);
+
+        //Publish
+        sSnapshot = snapshot;
+    }
+
+    /**
+     * Get the drawable for the given resource. If the drawable is prewarmed, this will create the new
+     * instance from the decoded state.
+     *
+     * @param context     {@link Context} of the view.
+     * @param drawableRes Drawable resource.
+     * @return New mutable {@link Drawable}.
+     */
+    @NonNull
+    public static Drawable getDrawable(@NonNull final Context context,
+                                       @DrawableRes final int drawableRes) {
+        final Resources resources = context.getResources();
+        final Snapshot snapshot = findSnapshot(resources);
+        final Drawable.ConstantState state = snapshot == null ? null : snapshot.mIcons.get(drawableRes);
+
+        //noinspection deprecation
+        final Drawable drawable = state == null
+                ? resources.getDrawable(drawableRes)
+                : state.newDrawable(resources);
+        return drawable.mutate();
+    }
+
+    /**
+     * Get the vertical offset from the center of the key to the baseline of the title text, so
+     * that the text gets vertically centered.
+     *
+     * @param context   {@link Context} of the view.
+     * @param textPaint {@link TextPaint} of the key title.
+     * @return Offset in pixels.
+     */
+    public static float getTextCenterOffset(@NonNull final Context context,
+                                            @NonNull final TextPaint textPaint) {
+        final Snapshot snapshot = findSnapshot(context.getResources());
+        if (snapshot != null
+                && snapshot.mKeyTextSize == textPaint.getTextSize()
+                && textPaint.isFakeBoldText()
+                && textPaint.getTypeface() == null) {
+            return snapshot.mKeyTextCenterOffset;
+        }
+        return calculateTextCenterOffset(textPaint);
+    }
+
+    private static float calculateTextCenterOffset(@NonNull final TextPaint textPaint) {
+        return -(textPaint.descent() + textPaint.ascent()) / 2;
+    }
+
+    /**
+     * @return Published {@link Snapshot} if it was prepared for the same density and font scale as
+     * the given resources, else null.
+     */
+    @Nullable
+    private static Snapshot findSnapshot(@NonNull final Resources resources) {
+        final Snapshot snapshot = sSnapshot;
+        return snapshot != null && snapshot.isValidFor(resources) ? snapshot : null;
+    }
+
+    /**
+     * Immutable (once published) prewarmed state for one density and font scale.
+     */
+    private static final class Snapshot {
+        private final int mDensityDpi;
+        private final float mFontScale;
+
+        @NonNull
+        private final SparseArray<Drawable.ConstantState> mIcons = new SparseArray<>();
+
+        private float mKeyTextSize;
+        private float mKeyTextCenterOffset;
+
+        private Snapshot(@NonNull final Resources resources) {
+            mDensityDpi = resources.getDisplayMetrics().densityDpi;
+            mFontScale = resources.getConfiguration().fontScale;
+        }
+
+        private boolean isValidFor(@NonNull final Resources resources) {
+            return mDensityDpi == resources.getDisplayMetrics().densityDpi
+                    && mFontScale == resources.getConfiguration().fontScale;
+        }
+    }
+}
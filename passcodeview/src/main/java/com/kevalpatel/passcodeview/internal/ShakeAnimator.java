@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.support.annotation.NonNull;
+import android.view.animation.CycleInterpolator;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * {@link FrameAnimator} that shakes the box left-right for two times when the authentication
+ * fails. This doesn't touch the bounds of the box. The box should translate the canvas by
+ * {@link #getOffset()} while drawing, so the geometry and the hit-testing stay the same while
+ * shaking.
+ *
+ * @author agent
+ */
+class ShakeAnimator extends FrameAnimator {
+    /**
+     * Duration of the shake animation in milliseconds.
+     */
+    private static final long SHAKE_DURATION = 300;
+
+    /**
+     * {@link BasePasscodeView} to read the shake distance from.
+     */
+    @NonNull
+    private final BasePasscodeView mView;
+
+    /**
+     * Maximum horizontal distance of the shake in pixels. This is read from the
+     * {@link DimensionSnapshot} every time the shake starts, so it follows the configuration changes.
+     */
+    private float mDistance;
+
+    /**
+     * Current horizontal translation in pixels.
+     */
+    private float mOffset = 0;
+
+    /**
+     * @param view {@link BasePasscodeView} that contains the box.
+     */
+    ShakeAnimator(@NonNull final BasePasscodeView view) {
+        super(SHAKE_DURATION, new CycleInterpolator(2));
+        mView = view;
+    }
+
+    @Override
+    void onStart() {
+        mDistance = mView.getDimens().getShakeDistance();
+        super.onStart();
+    }
+
+    @Override
+    protected void onUpdate(final float fraction) {
+        mOffset = fraction * mDistance;
+    }
+
+    @Override
+    protected void onEnd(final boolean isCancelled) {
+        mOffset = 0;
+    }
+
+    /**
+     * @return Current horizontal translation of the box in pixels.
+     */
+    float getOffset() {
+        return mOffset;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.ColorInt;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Process wide LRU cache of the pre-tinted icons and the pre-rasterized key and cell shapes. All
+ * the {@link com.kevalpatel.passcodeview.PinView} and {@link com.kevalpatel.passcodeview.PatternView}
+ * instances with the same look share the same bitmaps, so the icons are decoded and tinted and the
+ * shapes are rasterized once.
+ * <p>
+ * Bitmaps are never recycled on eviction, as keys and cells keep the references to the bitmaps
+ * they draw. Evicted bitmaps are collected once nothing draws them.
+ *
+ * @author agent
+ */
+public final class ShapeCache {
+    /**
+     * Max bytes of the bitmaps to keep in the cache. 1/32 of the heap is enough for the shapes of
+     * a couple of different looking views.
+     */
+    private static final int MAX_CACHE_SIZE = (int) Math.min(Runtime.getRuntime().maxMemory() / 32,
+            Integer.MAX_VALUE);
+
+    @NonNull
+    private static final LruCache<String, Bitmap> sCache = new LruCache<String, Bitmap>(MAX_CACHE_SIZE) {
+        @Override
+        protected int sizeOf(final String key, final Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+
+    private ShapeCache() {
+    }
+
+    /**
+     * Get the icon tinted with the given color and rasterized at the given size.
+     *
+     * @param context     {@link Context} of the view.
+     * @param drawableRes Drawable resource of the icon.
+     * @param width       Width of the icon in pixels.
+     * @param height      Height of the icon in pixels.
+     * @param color       Color to tint the icon with.
+     * @return Shared {@link Bitmap} of the icon. Don't modify it.
+     */
+    @NonNull
+    @MainThread
+    public static Bitmap getIcon(@NonNull final Context context,
+                                 @DrawableRes final int drawableRes,
+                                 final int width,
+                                 final int height,
+                                 @ColorInt final int color) {
+        final String key = "icon|" + drawableRes + "|" + width + "x" + height + "|" + color
+                + "|" + context.getResources().getDisplayMetrics().densityDpi;
+
+        Bitmap bitmap = sCache.get(key);
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(Math.max(width, 1), Math.max(height, 1), Bitmap.Config.ARGB_8888);
+
+            final Drawable drawable = PrewarmCache.getDrawable(context, drawableRes);
+            drawable.setColorFilter(new PorterDuffColorFilter(color, PorterDuff.Mode.SRC_ATOP));
+            drawable.setBounds(0, 0, width, height);
+            drawable.draw(new Canvas(bitmap));
+
+            sCache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Get the circle drawn with the given paint. The size is in pixels, so the density doesn't
+     * change the rasterized circle.
+     *
+     * @param paint  {@link Paint} to draw the circle. Only the color, the style and the stroke width
+     *               are taken into account.
+     * @param radius Radius of the circle in pixels.
+     * @return Shared {@link Bitmap} of the circle, with the circle at the center. Draw it with
+     * {@link #drawCentered(Canvas, Bitmap, float, float)}. Don't modify it.
+     */
+    @NonNull
+    @MainThread
+    public static Bitmap getCircle(@NonNull final Paint paint, final float radius) {
+        final boolean isStroked = paint.getStyle() != Paint.Style.FILL;
+        final String key = "circle|" + radius + "|" + paint.getStyle() + "|"
+                + (isStroked ? paint.getStrokeWidth() : 0) + "|" + paint.getColor();
+
+        Bitmap bitmap = sCache.get(key);
+        if (bitmap == null) {
+            //Leave a pixel around the circle for the anti-aliased edge.
+            final float halfSize = radius + (isStroked ? paint.getStrokeWidth() / 2 : 0) + 1;
+            final int size = (int) Math.ceil(halfSize * 2);
+
+            bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            new Canvas(bitmap).drawCircle(size / 2f, size / 2f, radius, paint);
+
+            sCache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Draw the shape bitmap centered at the given point. The position is rounded to the pixel, so
+     * that the shape doesn't get blurred by the filtering.
+     *
+     * @param canvas  {@link Canvas} to draw on.
+     * @param bitmap  Shape {@link Bitmap}.
+     * @param centerX X coordinate of the center.
+     * @param centerY Y coordinate of the center.
+     */
+    public static void drawCentered(@NonNull final Canvas canvas,
+                                    @NonNull final Bitmap bitmap,
+                                    final float centerX,
+                                    final float centerY) {
+        canvas.drawBitmap(bitmap,
+                Math.round(centerX - bitmap.getWidth() / 2f),
+                Math.round(centerY - bitmap.getHeight() / 2f),
+                null);
+    }
+
+    /**
+     * Drop all the cached bitmaps.
+     */
+    public static void clear() {
+        sCache.evictAll();
+    }
+}
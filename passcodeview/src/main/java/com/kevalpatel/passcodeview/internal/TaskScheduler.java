@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kevalpatel.passcodeview.internal;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Scheduler for the delayed work of the {@link BasePasscodeView} like clearing the error state of
+ * the indicators after some time. It posts everything to one {@link Handler} and keeps track of
+ * the pending {@link Task}s, so that those can be cancelled together when the view is detached.
+ * On reset, each box cancels only its own tasks.
+ * <p>
+ * {@link Task}s are reusable tokens. Create them once and schedule the same instance again
+ * instead of posting the new {@link Runnable} every time.
+ *
+ * @author agent
+ */
+public final class TaskScheduler {
+
+    /**
+     * {@link Handler} on the main thread.
+     */
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * List of the scheduled {@link Task}s which are not run yet.
+     */
+    @NonNull
+    private final ArrayList<Task> mPendingTasks = new ArrayList<>();
+
+    TaskScheduler() {
+        //Do nothing
+    }
+
+    /**
+     * Run the task after the given delay. If the task is already scheduled, it will be rescheduled
+     * with the new delay.
+     *
+     * @param task       {@link Task} to run.
+     * @param delayMills Delay in milliseconds.
+     */
+    @MainThread
+    public void schedule(@NonNull final Task task, final long delayMills) {
+        if (task.mScheduler == this) {
+            mHandler.removeCallbacks(task);
+        } else {
+            task.mScheduler = this;
+            mPendingTasks.add(task);
+        }
+        mHandler.postDelayed(task, delayMills);
+    }
+
+    /**
+     * Cancel the task if it is scheduled. This will call {@link Task#onCancel()}.
+     *
+     * @param task {@link Task} to cancel.
+     */
+    @MainThread
+    public void cancel(@NonNull final Task task) {
+        if (task.mScheduler != this) return;
+
+        mHandler.removeCallbacks(task);
+        mPendingTasks.remove(task);
+        task.mScheduler = null;
+        task.onCancel();
+    }
+
+    /**
+     * Cancel all the pending tasks. This will call {@link Task#onCancel()} for each of them.
+     */
+    @MainThread
+    public void cancelAll() {
+        //Cancel in the reverse order. onCancel() may schedule the other task.
+        for (int i = mPendingTasks.size() - 1; i >= 0; i--) {
+            if (i >= mPendingTasks.size()) continue;
+
+            final Task task = mPendingTasks.remove(i);
+            mHandler.removeCallbacks(task);
+            task.mScheduler = null;
+            task.onCancel();
+        }
+    }
+
+    /**
+     * @return True if any task is scheduled and not run yet.
+     */
+    public boolean hasPendingTasks() {
+        return !mPendingTasks.isEmpty();
+    }
+
+    /**
+     * @param task {@link Task} to check.
+     * @return True if the task is scheduled and not run yet.
+     */
+    public boolean isScheduled(@NonNull final Task task) {
+        return task.mScheduler == this;
+    }
+
+    /**
+     * Reusable unit of the delayed work for the {@link TaskScheduler}.
+     */
+    public static abstract class Task implements Runnable {
+
+        /**
+         * {@link TaskScheduler} on which this task is pending. Null if the task is not pending.
+         */
+        private TaskScheduler mScheduler;
+
+        /**
+         * Do the work. This will be called on the main thread.
+         */
+        protected abstract void onRun();
+
+        /**
+         * Called when the task gets cancelled before it could run. Restore the idle state here.
+         */
+        protected void onCancel() {
+            //Do nothing
+        }
+
+        /**
+         * Don't call this directly. Use {@link TaskScheduler#schedule(Task, long)}.
+         */
+        @Override
+        public final void run() {
+            if (mScheduler != null) {
+                mScheduler.mPendingTasks.remove(this);
+                mScheduler = null;
+            }
+            onRun();
+        }
+    }
+}
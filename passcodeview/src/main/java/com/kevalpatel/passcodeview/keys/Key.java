@@ -19,9 +19,14 @@ import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.kevalpatel.passcodeview.R;
 import com.kevalpatel.passcodeview.internal.BasePasscodeView;
 import com.kevalpatel.passcodeview.internal.BoxKeypad;
+import com.kevalpatel.passcodeview.internal.DimensionSnapshot;
+import com.kevalpatel.passcodeview.internal.PrewarmCache;
+import com.kevalpatel.passcodeview.internal.ShapeCache;
 
 /**
  * Created by Keval Patel on 07/04/17.
@@ -40,6 +45,34 @@ public abstract class Key {
     private String mDigit;
     private Builder mBuilder;
 
+    /**
+     * Code of the key. This is the value of the digit, {@link KeyNamesBuilder#KEY_CODE_BACKSPACE}
+     * or {@link KeyNamesBuilder#KEY_CODE_EMPTY}. Unlike the title, this doesn't depend on the
+     * locale. Assigned by {@link Builder#build(String, int, Rect)} after the key is constructed.
+     */
+    private int mKeyCode = KeyNamesBuilder.KEY_CODE_EMPTY;
+
+    /**
+     * Center of the {@link #mBound}. Calculated once, so drawing and hit-testing don't touch the
+     * {@link Rect}.
+     */
+    private final float mCenterX;
+    private final float mCenterY;
+
+    /**
+     * Half width and half height of the touch area around the center.
+     *
+     * @see #setTouchRadius(float)
+     */
+    private float mTouchHalfWidth;
+    private float mTouchHalfHeight;
+
+    /**
+     * Backspace icon for {@link #drawBackSpace(Canvas, Drawable)}. Loaded on the first use.
+     */
+    @Nullable
+    private Drawable mBackSpaceIcon;
+
 
     protected Key(@NonNull final Builder builder,
                   @NonNull final String keyTitle,
@@ -47,6 +80,11 @@ public abstract class Key {
         mDigit = keyTitle;
         mBuilder = builder;
         mBound = bound;
+
+        mCenterX = bound.exactCenterX();
+        mCenterY = bound.exactCenterY();
+        mTouchHalfWidth = bound.width() / 2f;
+        mTouchHalfHeight = bound.height() / 2f;
     }
 
     @NonNull
@@ -64,16 +102,77 @@ public abstract class Key {
         return mDigit;
     }
 
+    /**
+     * @return Code of the key assigned while building it. This is the value of the digit,
+     * {@link KeyNamesBuilder#KEY_CODE_BACKSPACE} or {@link KeyNamesBuilder#KEY_CODE_EMPTY}.
+     */
+    public final int getKeyCode() {
+        return mKeyCode;
+    }
+
+    /**
+     * Change the title of the key in place. The key keeps its bounds and shapes, so switching the
+     * key names only needs the redraw.
+     *
+     * @param digit New title of the key.
+     * @see #onDigitChanged(String)
+     */
+    public final void setDigit(@NonNull final String digit) {
+        if (digit.equals(mDigit)) return;
+        mDigit = digit;
+        onDigitChanged(digit);
+    }
+
+    /**
+     * Called when the title of the key changes. Update anything calculated from the title, like
+     * the text metrics, here.
+     *
+     * @param digit New title of the key.
+     */
+    protected void onDigitChanged(@NonNull final String digit) {
+        //Do nothing
+    }
+
     @NonNull
     protected final Rect getBounds() {
         return mBound;
     }
 
+    protected final float getCenterX() {
+        return mCenterX;
+    }
+
+    protected final float getCenterY() {
+        return mCenterY;
+    }
+
+    /**
+     * Limit the touch area of the key to the square of given radius around the center of the key.
+     * By default the whole {@link #getBounds()} is the touch area.
+     *
+     * @param radius Radius of the touch area.
+     */
+    protected final void setTouchRadius(final float radius) {
+        mTouchHalfWidth = radius;
+        mTouchHalfHeight = radius;
+    }
+
+    /**
+     * @return True if the touch coordinates are inside the touch area of the key.
+     * @see #setTouchRadius(float)
+     */
+    protected final boolean isInTouchArea(final float touchX, final float touchY) {
+        return touchX > mCenterX - mTouchHalfWidth
+                && touchX < mCenterX + mTouchHalfWidth
+                && touchY > mCenterY - mTouchHalfHeight
+                && touchY < mCenterY + mTouchHalfHeight;
+    }
+
     /**
      * Implement this method with the description on how to draw the text on the canvas. This method
      * will be called by the {@link BoxKeypad} when ever it's time to
      * draw the text on the {@link Canvas}. Application should draw only the key ranging from 0 to 9.
-     * Backspace key is drawn separately using {@link #drawBackSpace(Canvas, Drawable)}.
+     * Backspace key is drawn separately using {@link #drawBackSpace(Canvas)}.
      *
      * @param canvas {@link Canvas} on which the key text will be draw.
      * @see RoundKey#drawText(Canvas)
@@ -92,12 +191,34 @@ public abstract class Key {
     public abstract void drawShape(@NonNull Canvas canvas);
 
     /**
-     * Draw the backspace key on the keyboard.
+     * Draw the backspace key on the keyboard. Implementations can get the tinted backspace icon
+     * from the {@link ShapeCache}. By default, this calls {@link #drawBackSpace(Canvas, Drawable)}
+     * with the backspace icon for the keys written before this method existed.
+     *
+     * @param canvas {@link Canvas} on which the key text will be draw.
+     */
+    public void drawBackSpace(@NonNull Canvas canvas) {
+        if (mBackSpaceIcon == null) {
+            mBackSpaceIcon = PrewarmCache.getDrawable(getContext(), R.drawable.ic_back_space);
+        }
+        //noinspection deprecation
+        drawBackSpace(canvas, mBackSpaceIcon);
+    }
+
+    /**
+     * Draw the backspace key on the keyboard. By default, this draws the icon as it is in the
+     * bounds of the key.
      *
      * @param canvas        {@link Canvas} on which the key text will be draw.
      * @param backSpaceIcon {@link Drawable} to display on the backspace key.
+     * @deprecated Override {@link #drawBackSpace(Canvas)} and get the tinted icon from the
+     * {@link ShapeCache} instead.
      */
-    public abstract void drawBackSpace(@NonNull Canvas canvas, @NonNull Drawable backSpaceIcon);
+    @Deprecated
+    public void drawBackSpace(@NonNull Canvas canvas, @NonNull Drawable backSpaceIcon) {
+        backSpaceIcon.setBounds(getBounds());
+        backSpaceIcon.draw(canvas);
+    }
 
     /**
      * Handle the click events. Play some animations!!!
@@ -125,16 +246,6 @@ public abstract class Key {
      */
     public abstract boolean isKeyPressed(float touchX, float touchY);
 
-    @Override
-    public boolean equals(Object obj) {
-        return obj != null && obj instanceof String && obj.equals(mDigit);
-    }
-
-    @Override
-    public int hashCode() {
-        return mDigit.hashCode();
-    }
-
     /**
      * Builder for building the {@link Key}.
      */
@@ -163,6 +274,14 @@ public abstract class Key {
             return mPasscodeView.getContext();
         }
 
+        /**
+         * @return {@link DimensionSnapshot} with the library dimensions for the current configuration.
+         */
+        @NonNull
+        protected DimensionSnapshot getDimens() {
+            return mPasscodeView.getDimens();
+        }
+
         /**
          * Build the {@link Key}.
          *
@@ -172,5 +291,22 @@ public abstract class Key {
          */
         public abstract Key buildInternal(@NonNull final String keyTitle,
                                           @NonNull final Rect bound);
+
+        /**
+         * Build the {@link Key} and assign the key code to it.
+         *
+         * @param keyTitle Title of the key to display.
+         * @param keyCode  Code of the key. See {@link Key#getKeyCode()}.
+         * @param bound    Bound of the key.
+         * @return {@link Key}
+         */
+        @NonNull
+        public final Key build(@NonNull final String keyTitle,
+                               final int keyCode,
+                               @NonNull final Rect bound) {
+            final Key key = buildInternal(keyTitle, bound);
+            key.mKeyCode = keyCode;
+            return key;
+        }
     }
 }
@@ -36,6 +36,20 @@ public final class KeyNamesBuilder {
      */
     public static final String BACKSPACE_TITLE = "-1";
 
+    /**
+     * Key code of the backspace key. Digit keys use the value of the digit as the key code.
+     *
+     * @see com.kevalpatel.passcodeview.keys.Key#getKeyCode()
+     */
+    public static final int KEY_CODE_BACKSPACE = -1;
+
+    /**
+     * Key code of the empty key. This is also used if no key is pressed.
+     *
+     * @see com.kevalpatel.passcodeview.keys.Key#getKeyCode()
+     */
+    public static final int KEY_CODE_EMPTY = -2;
+
     // Default key names. These are standard english key names.
     private String mKeyOne = "1";
     private String mKeyTwo = "2";
@@ -220,4 +234,43 @@ public final class KeyNamesBuilder {
         else if (keyName.equals(BACKSPACE_TITLE)) return -1;
         else throw new IllegalArgumentException("Invalid key name.");
     }
+
+    /**
+     * Get the name of the key based on the key code. This is the reverse of {@link #getValueOfKey(String)}.
+     *
+     * @param keyCode Code of the key. See {@link Key#getKeyCode()}.
+     * @return Name of the key. Empty string for {@link #KEY_CODE_EMPTY}.
+     * @throws IllegalArgumentException if the key code is invalid.
+     */
+    @NonNull
+    public String getKeyName(final int keyCode) {
+        switch (keyCode) {
+            case 0:
+                return mKeyZero;
+            case 1:
+                return mKeyOne;
+            case 2:
+                return mKeyTwo;
+            case 3:
+                return mKeyThree;
+            case 4:
+                return mKeyFour;
+            case 5:
+                return mKeyFive;
+            case 6:
+                return mKeySix;
+            case 7:
+                return mKeySeven;
+            case 8:
+                return mKeyEight;
+            case 9:
+                return mKeyNine;
+            case KEY_CODE_BACKSPACE:
+                return BACKSPACE_TITLE;
+            case KEY_CODE_EMPTY:
+                return "";
+            default:
+                throw new IllegalArgumentException("Invalid key code.");
+        }
+    }
 }
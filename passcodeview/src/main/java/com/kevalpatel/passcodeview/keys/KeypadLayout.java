@@ -0,0 +1,277 @@
+/*
+ * Copyright 2018 Keval Patel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kevalpatel.passcodeview.keys;
+
+import android.support.annotation.NonNull;
+
+import com.kevalpatel.passcodeview.Constants;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Created by agent on 19-Oct-26.
+ * Describes the arrangement of the keys in the keypad. The keypad is a grid of rows and columns and
+ * each key covers one or more cells of the grid. Cells without a key are left blank.
+ * <p>
+ * Keys are identified by their key code (see {@link Key#getKeyCode()}): digits use their value and
+ * the function keys use {@link KeyNamesBuilder#KEY_CODE_BACKSPACE}. The layout is immutable, so the
+ * same instance can be shared between the views. Use {@link Builder} to create a custom layout.
+ *
+ * @author agent
+ */
+public final class KeypadLayout {
+    /**
+     * Index returned by {@link #getKeyIndexAt(int, int)} if no key covers the cell.
+     */
+    public static final int NO_KEY = -1;
+
+    /**
+     * Key codes of the standard keypad in the row-major order. Bottom left cell is blank.
+     */
+    private static final int[] STANDARD_KEY_CODES = new int[]{
+            1, 2, 3,
+            4, 5, 6,
+            7, 8, 9,
+            KeyNamesBuilder.KEY_CODE_EMPTY, 0, KeyNamesBuilder.KEY_CODE_BACKSPACE
+    };
+
+    private final int mRows;
+    private final int mColumns;
+    private final int mKeyCount;
+    private final int[] mKeyCodes;
+    private final int[] mRow;
+    private final int[] mColumn;
+    private final int[] mRowSpan;
+    private final int[] mColumnSpan;
+
+    /**
+     * Index of the key covering each cell of the grid in the row-major order or {@link #NO_KEY}.
+     * This makes finding the key under the touch a single array lookup.
+     */
+    private final int[] mCellKeys;
+
+    private KeypadLayout(@NonNull final Builder builder) {
+        mRows = builder.mRows;
+        mColumns = builder.mColumns;
+        mKeyCount = builder.mKeyCount;
+        mKeyCodes = Arrays.copyOf(builder.mKeyCodes, mKeyCount);
+        mRow = Arrays.copyOf(builder.mRow, mKeyCount);
+        mColumn = Arrays.copyOf(builder.mColumn, mKeyCount);
+        mRowSpan = Arrays.copyOf(builder.mRowSpan, mKeyCount);
+        mColumnSpan = Arrays.copyOf(builder.mColumnSpan, mKeyCount);
+        mCellKeys = builder.mCellKeys.clone();
+    }
+
+    /**
+     * @return Standard 3x4 keypad with the digits 1 to 9 in the top three rows and 0 and the
+     * backspace in the bottom row.
+     */
+    @NonNull
+    public static KeypadLayout standard() {
+        return buildStandard(STANDARD_KEY_CODES);
+    }
+
+    /**
+     * @return Standard 3x4 keypad with the digits placed randomly. The backspace stays at the
+     * bottom right. Use it to prevent shoulder surfing and smudge attacks.
+     * @see #randomized(Random)
+     */
+    @NonNull
+    public static KeypadLayout randomized() {
+        return randomized(new SecureRandom());
+    }
+
+    /**
+     * @param random {@link Random} to shuffle the digits.
+     * @return Standard 3x4 keypad with the digits placed randomly. The backspace stays at the
+     * bottom right.
+     */
+    @NonNull
+    public static KeypadLayout randomized(@NonNull final Random random) {
+        final int[] keyCodes = STANDARD_KEY_CODES.clone();
+
+        //Shuffle only the digits. The function keys and the blank cells stay where they are.
+        for (int i = keyCodes.length - 1; i > 0; i--) {
+            if (keyCodes[i] < 0) continue;
+
+            int j;
+            do {
+                j = random.nextInt(i + 1);
+            } while (keyCodes[j] < 0);
+
+            final int temp = keyCodes[i];
+            keyCodes[i] = keyCodes[j];
+            keyCodes[j] = temp;
+        }
+        return buildStandard(keyCodes);
+    }
+
+    @NonNull
+    private static KeypadLayout buildStandard(@NonNull final int[] keyCodes) {
+        final Builder builder = new Builder(Constants.NO_OF_KEY_BOARD_ROWS, Constants.NO_OF_KEY_BOARD_COLUMNS);
+        for (int i = 0; i < keyCodes.length; i++) {
+            if (keyCodes[i] == KeyNamesBuilder.KEY_CODE_EMPTY) continue;
+            builder.addKey(keyCodes[i],
+                    i / Constants.NO_OF_KEY_BOARD_COLUMNS,
+                    i % Constants.NO_OF_KEY_BOARD_COLUMNS);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param row    Row of the cell.
+     * @param column Column of the cell.
+     * @return Index of the key covering the cell or {@link #NO_KEY} if the cell is blank.
+     */
+    public int getKeyIndexAt(final int row, final int column) {
+        return mCellKeys[row * mColumns + column];
+    }
+
+    ///////////////// GETTERS //////////////
+
+    public int getRowCount() {
+        return mRows;
+    }
+
+    public int getColumnCount() {
+        return mColumns;
+    }
+
+    public int getKeyCount() {
+        return mKeyCount;
+    }
+
+    public int getKeyCode(final int index) {
+        return mKeyCodes[index];
+    }
+
+    public int getRow(final int index) {
+        return mRow[index];
+    }
+
+    public int getColumn(final int index) {
+        return mColumn[index];
+    }
+
+    public int getRowSpan(final int index) {
+        return mRowSpan[index];
+    }
+
+    public int getColumnSpan(final int index) {
+        return mColumnSpan[index];
+    }
+
+    /**
+     * Builder to create the custom {@link KeypadLayout}.
+     */
+    public static final class Builder {
+        private final int mRows;
+        private final int mColumns;
+        private int mKeyCount = 0;
+        private final int[] mKeyCodes;
+        private final int[] mRow;
+        private final int[] mColumn;
+        private final int[] mRowSpan;
+        private final int[] mColumnSpan;
+        private final int[] mCellKeys;
+
+        /**
+         * Public constructor.
+         *
+         * @param rows    Number of rows in the grid.
+         * @param columns Number of columns in the grid.
+         * @throws IllegalArgumentException if the rows or columns are less than 1.
+         */
+        public Builder(final int rows, final int columns) {
+            if (rows < 1 || columns < 1)
+                throw new IllegalArgumentException("Keypad must have at least one row and column.");
+
+            mRows = rows;
+            mColumns = columns;
+
+            //Keys cannot overlap, so there cannot be more keys than cells.
+            final int cells = rows * columns;
+            mKeyCodes = new int[cells];
+            mRow = new int[cells];
+            mColumn = new int[cells];
+            mRowSpan = new int[cells];
+            mColumnSpan = new int[cells];
+            mCellKeys = new int[cells];
+            Arrays.fill(mCellKeys, NO_KEY);
+        }
+
+        /**
+         * Add the key covering a single cell.
+         *
+         * @see #addKey(int, int, int, int, int)
+         */
+        @NonNull
+        public Builder addKey(final int keyCode, final int row, final int column) {
+            return addKey(keyCode, row, column, 1, 1);
+        }
+
+        /**
+         * Add the key to the grid.
+         *
+         * @param keyCode    Value of the digit (0 to 9) or {@link KeyNamesBuilder#KEY_CODE_BACKSPACE}.
+         * @param row        Top row of the key.
+         * @param column     Left column of the key.
+         * @param rowSpan    Number of rows the key covers.
+         * @param columnSpan Number of columns the key covers.
+         * @throws IllegalArgumentException if the key code is invalid, the key doesn't fit in the
+         *                                  grid or it overlaps other key.
+         */
+        @NonNull
+        public Builder addKey(final int keyCode,
+                              final int row,
+                              final int column,
+                              final int rowSpan,
+                              final int columnSpan) {
+            if (keyCode < KeyNamesBuilder.KEY_CODE_BACKSPACE || keyCode > 9)
+                throw new IllegalArgumentException("Invalid key code: " + keyCode);
+            if (row < 0 || column < 0 || rowSpan < 1 || columnSpan < 1
+                    || row + rowSpan > mRows || column + columnSpan > mColumns)
+                throw new IllegalArgumentException("Key " + keyCode + " doesn't fit in the keypad.");
+
+            for (int r = row; r < row + rowSpan; r++) {
+                for (int c = column; c < column + columnSpan; c++) {
+                    if (mCellKeys[r * mColumns + c] != NO_KEY)
+                        throw new IllegalArgumentException("Key " + keyCode + " overlaps other key.");
+                }
+            }
+
+            final int index = mKeyCount++;
+            mKeyCodes[index] = keyCode;
+            mRow[index] = row;
+            mColumn[index] = column;
+            mRowSpan[index] = rowSpan;
+            mColumnSpan[index] = columnSpan;
+            for (int r = row; r < row + rowSpan; r++) {
+                for (int c = column; c < column + columnSpan; c++) {
+                    mCellKeys[r * mColumns + c] = index;
+                }
+            }
+            return this;
+        }
+
+        @NonNull
+        public KeypadLayout build() {
+            return new KeypadLayout(this);
+        }
+    }
+}
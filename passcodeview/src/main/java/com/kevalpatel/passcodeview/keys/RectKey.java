@@ -14,25 +14,28 @@
 
 package com.kevalpatel.passcodeview.keys;
 
-import android.animation.ValueAnimator;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffColorFilter;
 import android.graphics.Rect;
-import android.graphics.drawable.Drawable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.ColorRes;
 import android.support.annotation.DimenRes;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.text.TextPaint;
-import android.view.animation.CycleInterpolator;
+import android.util.SparseArray;
 
 import com.kevalpatel.passcodeview.R;
 import com.kevalpatel.passcodeview.Utils;
 import com.kevalpatel.passcodeview.internal.BasePasscodeView;
+import com.kevalpatel.passcodeview.internal.FrameAnimator;
+import com.kevalpatel.passcodeview.internal.KeyTextFitter;
+import com.kevalpatel.passcodeview.internal.PrewarmCache;
+import com.kevalpatel.passcodeview.internal.ShapeCache;
+import com.kevalpatel.passcodeview.internal.TaskScheduler;
 
 /**
  * Created by Keval on 06-Apr-17.
@@ -47,19 +50,45 @@ public final class RectKey extends Key {
      */
     private static final long ANIMATION_DURATION = 200;
     @NonNull
-    private final ValueAnimator mErrorAnimator;
-    @NonNull
     private final Builder mBuilder;
+    /**
+     * {@link Paint} of the key. This is shared by all the keys built using same {@link Builder}.
+     */
     @NonNull
     private final Paint mKeyPaint;
+    /**
+     * {@link TextPaint} of the key title text. This is shared by all the keys built using same
+     * {@link Builder}.
+     */
     @NonNull
-    private final TextPaint mKeyTextPaint;
+    private TextPaint mKeyTextPaint;
+
+    /**
+     * Vertical offset from the center of the key to the baseline of the title text.
+     */
+    private float mTextCenterOffset;
+    /**
+     * {@link Paint} of the key while the click animation is running. This is shared by all the
+     * keys built using same {@link Builder}.
+     */
     @NonNull
     private final Paint mRipplePaint;
+    /**
+     * Pre-tinted backspace icon shared through the {@link ShapeCache}. This will be loaded when the
+     * key is drawn as backspace for the first time.
+     */
+    @Nullable
+    private Bitmap mBackSpaceIcon;
     /**
      * True if the click animations are running or not.
      */
     private boolean isClickedAnimationRunning = false;
+    /**
+     * Task to end the click animation after {@link #ANIMATION_DURATION}. This will be created when
+     * the key is clicked and released when the click animation ends.
+     */
+    @Nullable
+    private TaskScheduler.Task mClickEndTask;
 
     /**
      * Public constructor.
@@ -71,37 +100,33 @@ public final class RectKey extends Key {
 
         mBuilder = builder;
 
-        //Set the keyboard paint
-        mKeyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mKeyPaint.setStyle(Paint.Style.STROKE);
-        mKeyPaint.setColor(builder.mKeyStrokeColor);
-        mKeyPaint.setTextSize(builder.mKeyTextSize);
-        mKeyPaint.setStrokeWidth(builder.mKeyStrokeWidth);
-
-        //Set the keyboard text paint
-        mKeyTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
-        mKeyTextPaint.setColor(builder.mKeyTextColor);
-        mKeyTextPaint.setTextSize(builder.mKeyTextSize);
-        mKeyTextPaint.setFakeBoldText(true);
-        mKeyTextPaint.setTextAlign(Paint.Align.CENTER);
-
-        //Ripple paint
-        mRipplePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mRipplePaint.setStyle(Paint.Style.STROKE);
-        mRipplePaint.setColor(Utils.makeColorDark(builder.mKeyStrokeColor));
-        mRipplePaint.setStrokeWidth(builder.mKeyStrokeWidth);
-
-        //Error animator
-        mErrorAnimator = ValueAnimator.ofInt(0, 10);
-        mErrorAnimator.setInterpolator(new CycleInterpolator(2));
-        mErrorAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                getBounds().left += (int) animation.getAnimatedValue();
-                getBounds().right += (int) animation.getAnimatedValue();
-                getPasscodeView().invalidate();
-            }
-        });
+        //Shared paints
+        mKeyPaint = builder.getKeyPaint();
+        applyTitleText(keyTitle);
+        mRipplePaint = builder.getRipplePaint();
+
+    }
+
+    @Override
+    protected void onDigitChanged(@NonNull final String digit) {
+        applyTitleText(digit);
+    }
+
+    /**
+     * Pick the text paint and the baseline offset for the title. In the auto-fit mode those depend
+     * on the title.
+     */
+    private void applyTitleText(@NonNull final String keyTitle) {
+        if (mBuilder.isAutoFitText && !keyTitle.isEmpty()) {
+            final int textWidth = (int) ((getBounds().width() - 2 * mBuilder.mKeyPadding) * KeyTextFitter.FILL_RATIO);
+            final int textHeight = (int) ((getBounds().height() - 2 * mBuilder.mKeyPadding) * KeyTextFitter.FILL_RATIO);
+            final KeyTextFitter.Fit fit = KeyTextFitter.fit(mBuilder.getKeyTextPaint(), keyTitle, textWidth, textHeight);
+            mKeyTextPaint = KeyTextFitter.obtainPaint(mBuilder.mFittedTextPaints, mBuilder.getKeyTextPaint(), fit.getTextSize());
+            mTextCenterOffset = fit.getCenterOffset();
+        } else {
+            mKeyTextPaint = mBuilder.getKeyTextPaint();
+            mTextCenterOffset = mBuilder.getTextCenterOffset();
+        }
     }
 
     /**
@@ -114,13 +139,29 @@ public final class RectKey extends Key {
         isClickedAnimationRunning = true;
         getPasscodeView().invalidate();
 
-        new android.os.Handler().postDelayed(new Runnable() {
+        if (mClickEndTask == null) mClickEndTask = createClickEndTask();
+        getPasscodeView().getTaskScheduler().schedule(mClickEndTask, ANIMATION_DURATION);
+    }
+
+    @NonNull
+    private TaskScheduler.Task createClickEndTask() {
+        return new TaskScheduler.Task() {
             @Override
-            public void run() {
-                isClickedAnimationRunning = false;
+            protected void onRun() {
+                onClickAnimationEnd();
                 getPasscodeView().invalidate();
             }
-        }, ANIMATION_DURATION);
+
+            @Override
+            protected void onCancel() {
+                onClickAnimationEnd();
+            }
+        };
+    }
+
+    private void onClickAnimationEnd() {
+        isClickedAnimationRunning = false;
+        mClickEndTask = null;
     }
 
     /**
@@ -132,8 +173,8 @@ public final class RectKey extends Key {
     public void drawText(@NonNull Canvas canvas) {
         //Draw key text
         canvas.drawText(getDigit() + "",                //Text to display on key
-                getBounds().exactCenterX(),                 //Set start point at center width of key
-                getBounds().exactCenterY() - (mKeyTextPaint.descent() + mKeyTextPaint.ascent()) / 2,    //center height of key - text height/2
+                getCenterX(),                 //Set start point at center width of key
+                getCenterY() + mTextCenterOffset,    //center height of key - text height/2
                 mKeyTextPaint);
     }
 
@@ -151,17 +192,22 @@ public final class RectKey extends Key {
     /**
      * Draw the backspace key.
      *
-     * @param canvas        {@link Canvas} on which the key text will be draw.
-     * @param backSpaceIcon {@link Drawable} to display on the backspace key.
+     * @param canvas {@link Canvas} on which the key text will be draw.
      */
     @Override
-    public void drawBackSpace(@NonNull Canvas canvas, @NonNull Drawable backSpaceIcon) {
-        backSpaceIcon.setColorFilter(new PorterDuffColorFilter(mKeyTextPaint.getColor(), PorterDuff.Mode.SRC_ATOP));
-        backSpaceIcon.setBounds((int) (getBounds().exactCenterX() - Math.min(getBounds().height(), getBounds().width()) / 3),
-                (int) (getBounds().exactCenterY() - Math.min(getBounds().height(), getBounds().width()) / 3),
-                (int) (getBounds().exactCenterX() + Math.min(getBounds().height(), getBounds().width()) / 3),
-                (int) (getBounds().exactCenterY() + Math.min(getBounds().height(), getBounds().width()) / 3));
-        backSpaceIcon.draw(canvas);
+    public void drawBackSpace(@NonNull Canvas canvas) {
+        final int distanceToCenter = Math.min(getBounds().height(), getBounds().width()) / 3;
+        final int left = (int) (getCenterX() - distanceToCenter);
+        final int top = (int) (getCenterY() - distanceToCenter);
+
+        if (mBackSpaceIcon == null) {
+            mBackSpaceIcon = ShapeCache.getIcon(getContext(),
+                    R.drawable.ic_back_space,
+                    (int) (getCenterX() + distanceToCenter) - left,
+                    (int) (getCenterY() + distanceToCenter) - top,
+                    mKeyTextPaint.getColor());
+        }
+        canvas.drawBitmap(mBackSpaceIcon, left, top, null);
     }
 
     /**
@@ -173,15 +219,7 @@ public final class RectKey extends Key {
      */
     @Override
     public boolean isKeyPressed(float touchX, float touchY) {
-
-        //Check if the click is between the width bounds
-        //noinspection SimplifiableIfStatement
-        if (touchX > getBounds().left && touchX < getBounds().right) {
-
-            //Check if the click is between the height bounds
-            return touchY > getBounds().top && touchY < getBounds().bottom;
-        }
-        return false;
+        return isInTouchArea(touchX, touchY);
     }
 
     /**
@@ -193,11 +231,11 @@ public final class RectKey extends Key {
     }
 
     /**
-     * Show animation indicated invalid pin code
+     * Handle the authentication failure. The whole keypad shakes, so nothing to do here.
      */
     @Override
     public void onAuthFail() {
-        mErrorAnimator.start();
+        //Do nothing
     }
 
     public static class Builder extends Key.Builder {
@@ -231,6 +269,47 @@ public final class RectKey extends Key {
         @ColorInt
         private int mKeyTextColor;
 
+        /**
+         * {@link Paint} of the key shared by all the keys built by this builder. This will be created
+         * lazily and cleared whenever any paint parameter changes.
+         */
+        @Nullable
+        private Paint mKeyPaint;
+
+        /**
+         * {@link TextPaint} of the key title shared by all the keys built by this builder. This will
+         * be created lazily and cleared whenever any paint parameter changes.
+         */
+        @Nullable
+        private TextPaint mKeyTextPaint;
+
+        /**
+         * Vertical offset from the center of the key to the baseline of the title. This will be
+         * calculated lazily and cleared whenever any paint parameter changes.
+         */
+        private float mTextCenterOffset = Float.NaN;
+
+        /**
+         * True to fit the key title into each key instead of using the fixed text size.
+         *
+         * @see KeyTextFitter
+         */
+        private boolean isAutoFitText = false;
+
+        /**
+         * Key title paints for the fitted text sizes shared by all the keys built by this builder.
+         * These will be created lazily and cleared whenever any paint parameter changes.
+         */
+        @NonNull
+        private final SparseArray<TextPaint> mFittedTextPaints = new SparseArray<>();
+
+        /**
+         * {@link Paint} of the clicked key shared by all the keys built by this builder. This will be
+         * created lazily and cleared whenever any paint parameter changes.
+         */
+        @Nullable
+        private Paint mRipplePaint;
+
         public Builder(@NonNull final BasePasscodeView passcodeView) {
             super(passcodeView);
             setDefaults(getContext());
@@ -239,63 +318,158 @@ public final class RectKey extends Key {
         @NonNull
         public Builder setKeyPadding(@DimenRes int keyPaddingRes) {
             mKeyPadding = getContext().getResources().getDimension(keyPaddingRes);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyPadding(@Dimension float keyPadding) {
             mKeyPadding = keyPadding;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyTextSize(@DimenRes int keyTextSize) {
             mKeyTextSize = getContext().getResources().getDimension(keyTextSize);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyTextSize(float keyTextSize) {
             mKeyTextSize = keyTextSize;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyStrokeWidth(@DimenRes int keyStrokeWidth) {
             mKeyStrokeWidth = getContext().getResources().getDimension(keyStrokeWidth);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyStrokeWidth(float keyStrokeWidth) {
             mKeyStrokeWidth = keyStrokeWidth;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyStrokeColor(@ColorInt int keyStrokeColor) {
             mKeyStrokeColor = keyStrokeColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyStrokeColorResource(@ColorRes int keyStrokeColor) {
             mKeyStrokeColor = getContext().getResources().getColor(keyStrokeColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyTextColor(@ColorInt int keyTextColor) {
             mKeyTextColor = keyTextColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyTextColorResource(@ColorRes int keyTextColor) {
             mKeyTextColor = getContext().getResources().getColor(keyTextColor);
+            clearPaints();
+            return this;
+        }
+
+        /**
+         * @return {@link Paint} of the key shared by all the keys built by this builder.
+         */
+        @NonNull
+        Paint getKeyPaint() {
+            if (mKeyPaint == null) {
+                mKeyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mKeyPaint.setStyle(Paint.Style.STROKE);
+                mKeyPaint.setColor(mKeyStrokeColor);
+                mKeyPaint.setTextSize(mKeyTextSize);
+                mKeyPaint.setStrokeWidth(mKeyStrokeWidth);
+            }
+            return mKeyPaint;
+        }
+
+        /**
+         * Pick the largest text size at which the title fits into each key. Useful if the same
+         * layout runs on the small phones and the tablets. The fixed text size is ignored in this
+         * mode.
+         *
+         * @param autoFitText True to fit the text into the keys.
+         */
+        @NonNull
+        public Builder setAutoFitText(final boolean autoFitText) {
+            isAutoFitText = autoFitText;
+            clearPaints();
             return this;
         }
 
+        public boolean isAutoFitText() {
+            return isAutoFitText;
+        }
+
+        /**
+         * @return {@link TextPaint} of the key title shared by all the keys built by this builder.
+         */
+        @NonNull
+        TextPaint getKeyTextPaint() {
+            if (mKeyTextPaint == null) {
+                mKeyTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+                mKeyTextPaint.setColor(mKeyTextColor);
+                mKeyTextPaint.setTextSize(mKeyTextSize);
+                mKeyTextPaint.setFakeBoldText(true);
+                mKeyTextPaint.setTextAlign(Paint.Align.CENTER);
+            }
+            return mKeyTextPaint;
+        }
+
+        /**
+         * @return Vertical offset from the center of the key to the baseline of the title text.
+         * @see PrewarmCache#getTextCenterOffset(Context, TextPaint)
+         */
+        float getTextCenterOffset() {
+            if (Float.isNaN(mTextCenterOffset)) {
+                mTextCenterOffset = PrewarmCache.getTextCenterOffset(getContext(), getKeyTextPaint());
+            }
+            return mTextCenterOffset;
+        }
+
+        /**
+         * @return {@link Paint} of the clicked key shared by all the keys built by this builder.
+         */
+        @NonNull
+        Paint getRipplePaint() {
+            if (mRipplePaint == null) {
+                mRipplePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mRipplePaint.setStyle(Paint.Style.STROKE);
+                mRipplePaint.setColor(Utils.makeColorDark(mKeyStrokeColor));
+                mRipplePaint.setStrokeWidth(mKeyStrokeWidth);
+            }
+            return mRipplePaint;
+        }
+
+        /**
+         * Clear the shared paints. Those will be created again with new parameters while building
+         * the next key. Keys that are already built will keep the old paints.
+         */
+        private void clearPaints() {
+            mKeyPaint = null;
+            mKeyTextPaint = null;
+            mTextCenterOffset = Float.NaN;
+            mFittedTextPaints.clear();
+            mRipplePaint = null;
+        }
+
         /**
          * Build the {@link RectKey}.
          *
@@ -315,9 +489,9 @@ public final class RectKey extends Key {
         private void setDefaults(@NonNull final Context context) {
             mKeyTextColor = context.getResources().getColor(R.color.lib_key_default_color);
             mKeyStrokeColor = context.getResources().getColor(R.color.lib_key_background_color);
-            mKeyTextSize = context.getResources().getDimension(R.dimen.lib_key_text_size);
-            mKeyStrokeWidth = context.getResources().getDimension(R.dimen.lib_key_stroke_width);
-            mKeyPadding = getContext().getResources().getDimension(R.dimen.lib_key_padding);
+            mKeyTextSize = getDimens().getKeyTextSize();
+            mKeyStrokeWidth = getDimens().getKeyStrokeWidth();
+            mKeyPadding = getDimens().getKeyPadding();
         }
     }
 }
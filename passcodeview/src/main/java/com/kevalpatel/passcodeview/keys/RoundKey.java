@@ -14,25 +14,27 @@
 
 package com.kevalpatel.passcodeview.keys;
 
-import android.animation.Animator;
-import android.animation.ValueAnimator;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffColorFilter;
 import android.graphics.Rect;
-import android.graphics.drawable.Drawable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.ColorRes;
 import android.support.annotation.DimenRes;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.text.TextPaint;
-import android.view.animation.CycleInterpolator;
+import android.util.SparseArray;
+import android.view.animation.AccelerateDecelerateInterpolator;
 
 import com.kevalpatel.passcodeview.R;
 import com.kevalpatel.passcodeview.internal.BasePasscodeView;
+import com.kevalpatel.passcodeview.internal.FrameAnimator;
+import com.kevalpatel.passcodeview.internal.KeyTextFitter;
+import com.kevalpatel.passcodeview.internal.PrewarmCache;
+import com.kevalpatel.passcodeview.internal.ShapeCache;
 
 /**
  * Created by Keval on 06-Apr-17.
@@ -50,42 +52,54 @@ public final class RoundKey extends Key {
      * Ripple animation duration in milli seconds.
      */
     private static final int RIPPLE_DURATION = 350;
+    @NonNull
+    private final RoundKey.Builder mBuilder;
     /**
-     * {@link Paint} of the key.
+     * {@link Paint} of the key. This is shared by all the keys built using same {@link Builder}.
      */
     @NonNull
     private final Paint mKeyPaint;
     /**
-     * {@link TextPaint} of the key title text.
+     * {@link TextPaint} of the key title text. This is shared by all the keys built using same
+     * {@link Builder}.
      */
     @NonNull
-    private final TextPaint mKeyTextPaint;
+    private TextPaint mKeyTextPaint;
+
     /**
-     * {@link Paint} of the ripple animations.
+     * Vertical offset from the center of the key to the baseline of the title text.
      */
-    @NonNull
-    private final Paint mRipplePaint;
+    private float mTextCenterOffset;
     /**
      * Radius of the round key. This radius is decided by the key bound width and key padding.
      *
      * @see #calculateKeyRadius(Rect, float)
      */
     private final float mKeyRadius;
-
     /**
-     * {@link ValueAnimator} for the key ripple animations.
+     * Pre-rasterized circle of the key. This is shared through the {@link ShapeCache}.
      */
-    private ValueAnimator mRippleValueAnimator;
+    @NonNull
+    private final Bitmap mKeyShape;
     /**
-     * {@link ValueAnimator} for the authentication error. This animator will shake the view left-right
-     * for two times.
+     * Pre-tinted backspace icon shared through the {@link ShapeCache}. This will be loaded when the
+     * key is drawn as backspace for the first time.
      */
-    private ValueAnimator mErrorAnimator;               //Left-Right animator
+    @Nullable
+    private Bitmap mBackSpaceIcon;
 
     /**
-     * Boolean to set <code>true</code> if the ripple animation is running else <code>false</code>.
+     * {@link FrameAnimator} for the key ripple animations. This will be created when the key is
+     * clicked and released when the ripple ends. Null if the ripple is not running.
      */
-    private boolean isRippleEffectRunning = false;
+    @Nullable
+    private FrameAnimator mRippleAnimator;
+    /**
+     * {@link Paint} of the ripple animations. The alpha of this paint animates, so each key has its
+     * own copy. This lives only while {@link #mRippleAnimator} is running.
+     */
+    @Nullable
+    private Paint mRipplePaint;
 
     /**
      * Current ripple radius.
@@ -105,84 +119,67 @@ public final class RoundKey extends Key {
                      @NonNull final String keyTitle,
                      @NonNull final Rect bound) {
         super(builder, keyTitle, bound);
-
-        //Set the keyboard paint
-        mKeyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mKeyPaint.setStyle(Paint.Style.STROKE);
-        mKeyPaint.setColor(builder.mKeyStrokeColor);
-        mKeyPaint.setTextSize(builder.mKeyTextSize);
-        mKeyPaint.setStrokeWidth(builder.mKeyStrokeWidth);
-
-        //Set the keyboard text paint
-        mKeyTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
-        mKeyTextPaint.setColor(builder.mKeyTextColor);
-        mKeyTextPaint.setTextSize(builder.mKeyTextSize);
-        mKeyTextPaint.setFakeBoldText(true);
-        mKeyTextPaint.setTextAlign(Paint.Align.CENTER);
-
-        //Prepare ripple paint
-        mRipplePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mRipplePaint.setStyle(Paint.Style.FILL);
+        mBuilder = builder;
 
         mKeyRadius = calculateKeyRadius(getBounds(), builder.mKeyPadding);
 
-        setUpAnimator();
+        //Shared paints
+        mKeyPaint = builder.getKeyPaint();
+        applyTitleText(keyTitle);
+
+        mKeyShape = ShapeCache.getCircle(mKeyPaint, mKeyRadius);
+        setTouchRadius(mKeyRadius);
+    }
+
+    @Override
+    protected void onDigitChanged(@NonNull final String digit) {
+        applyTitleText(digit);
     }
 
     /**
-     * Initialise the filed and listener for ripple effect mRippleValueAnimator
+     * Pick the text paint and the baseline offset for the title. In the auto-fit mode those depend
+     * on the title.
      */
-    private void setUpAnimator() {
-        final int circleAlphaOffset = (int) (MAX_RIPPLE_ALPHA / mKeyRadius);
+    private void applyTitleText(@NonNull final String keyTitle) {
+        if (mBuilder.isAutoFitText && !keyTitle.isEmpty()) {
+            final int textBox = (int) (2 * mKeyRadius * KeyTextFitter.FILL_RATIO);
+            final KeyTextFitter.Fit fit = KeyTextFitter.fit(mBuilder.getKeyTextPaint(), keyTitle, textBox, textBox);
+            mKeyTextPaint = KeyTextFitter.obtainPaint(mBuilder.mFittedTextPaints, mBuilder.getKeyTextPaint(), fit.getTextSize());
+            mTextCenterOffset = fit.getCenterOffset();
+        } else {
+            mKeyTextPaint = mBuilder.getKeyTextPaint();
+            mTextCenterOffset = mBuilder.getTextCenterOffset();
+        }
+    }
 
-        mRippleValueAnimator = ValueAnimator.ofFloat(0, mKeyRadius);
-        mRippleValueAnimator.setDuration(RIPPLE_DURATION);
-        mRippleValueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+    /**
+     * Create the ripple paint and the animator. Most of the keys are never clicked, so these are
+     * created on the first click and released when the ripple ends. The animator runs on the
+     * {@link com.kevalpatel.passcodeview.internal.AnimationDriver} of the view.
+     */
+    @NonNull
+    private FrameAnimator createRippleAnimator() {
+        mRipplePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mRipplePaint.setStyle(Paint.Style.FILL);
 
+        final float circleAlphaOffset = MAX_RIPPLE_ALPHA / mKeyRadius;
+        return new FrameAnimator(RIPPLE_DURATION, new AccelerateDecelerateInterpolator()) {
             @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                if (isRippleEffectRunning) {
-                    float animatedValue = (float) animation.getAnimatedValue();
-                    mCurrentRippleRadius = (int) animatedValue;
-                    mCurrentAlpha = (int) (MAX_RIPPLE_ALPHA - (animatedValue * circleAlphaOffset));
-                    getPasscodeView().invalidate();
-                }
-            }
-        });
-        mRippleValueAnimator.addListener(new ValueAnimator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                isRippleEffectRunning = true;
+            protected void onUpdate(final float fraction) {
+                final float animatedValue = fraction * mKeyRadius;
+                mCurrentRippleRadius = (int) animatedValue;
+                mCurrentAlpha = (int) (MAX_RIPPLE_ALPHA - (animatedValue * circleAlphaOffset));
             }
 
             @Override
-            public void onAnimationEnd(Animator animation) {
-                isRippleEffectRunning = false;
+            protected void onEnd(final boolean isCancelled) {
                 mCurrentRippleRadius = 0;
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                //Do nothing
-            }
-
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-                //Do nothing
-            }
-        });
 
-        //Error animator
-        mErrorAnimator = ValueAnimator.ofInt(0, 10);
-        mErrorAnimator.setInterpolator(new CycleInterpolator(2));
-        mErrorAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                getBounds().left += (int) animation.getAnimatedValue();
-                getBounds().right += (int) animation.getAnimatedValue();
-                getPasscodeView().invalidate();
+                //Release the ripple state
+                mRippleAnimator = null;
+                mRipplePaint = null;
             }
-        });
+        };
     }
 
     /**
@@ -203,15 +200,16 @@ public final class RoundKey extends Key {
      */
     @Override
     public void playClickAnimation() {
-        mRippleValueAnimator.start();
+        if (mRippleAnimator == null) mRippleAnimator = createRippleAnimator();
+        getPasscodeView().getAnimationDriver().start(mRippleAnimator);
     }
 
     /**
-     * Show animation indicated invalid pin code
+     * Handle the authentication failure. The whole keypad shakes, so nothing to do here.
      */
     @Override
     public void onAuthFail() {
-        mErrorAnimator.start();
+        //Do nothing
     }
 
     @Override
@@ -230,37 +228,42 @@ public final class RoundKey extends Key {
     public void drawText(@NonNull Canvas canvas) {
         //Draw key text
         canvas.drawText(getDigit() + "",                //Text to display on key
-                getBounds().exactCenterX(),             //Set start point at center width of key
-                getBounds().exactCenterY() - (mKeyTextPaint.descent() + mKeyTextPaint.ascent()) / 2,    //center height of key - text height/2
+                getCenterX(),             //Set start point at center width of key
+                getCenterY() + mTextCenterOffset,    //center height of key - text height/2
                 mKeyTextPaint);
     }
 
     @Override
     public void drawShape(@NonNull Canvas canvas) {
         //Draw circle background
-        canvas.drawCircle(getBounds().exactCenterX(),   //Set center width of key
-                getBounds().exactCenterY(),             //Set center height of key
-                mKeyRadius,
-                mKeyPaint);
+        ShapeCache.drawCentered(canvas,
+                mKeyShape,
+                getCenterX(),             //Set center width of key
+                getCenterY());            //Set center height of key
 
         //Play ripple effect if the key has ripple effect enabled.
-        if (isRippleEffectRunning) {
+        if (mRipplePaint != null) {
             mRipplePaint.setAlpha(mCurrentAlpha);
-            canvas.drawCircle(getBounds().exactCenterX(),
-                    getBounds().exactCenterY(),
+            canvas.drawCircle(getCenterX(),
+                    getCenterY(),
                     mCurrentRippleRadius,
                     mRipplePaint);
         }
     }
 
     @Override
-    public void drawBackSpace(@NonNull Canvas canvas, @NonNull Drawable backSpaceIcon) {
-        backSpaceIcon.setColorFilter(new PorterDuffColorFilter(mKeyTextPaint.getColor(), PorterDuff.Mode.SRC_ATOP));
-        backSpaceIcon.setBounds((int) (getBounds().exactCenterX() - mKeyRadius / 2),
-                (int) (getBounds().exactCenterY() - mKeyRadius / 2),
-                (int) (getBounds().exactCenterX() + mKeyRadius / 2),
-                (int) (getBounds().exactCenterY() + mKeyRadius / 2));
-        backSpaceIcon.draw(canvas);
+    public void drawBackSpace(@NonNull Canvas canvas) {
+        final int left = (int) (getCenterX() - mKeyRadius / 2);
+        final int top = (int) (getCenterY() - mKeyRadius / 2);
+
+        if (mBackSpaceIcon == null) {
+            mBackSpaceIcon = ShapeCache.getIcon(getContext(),
+                    R.drawable.ic_back_space,
+                    (int) (getCenterX() + mKeyRadius / 2) - left,
+                    (int) (getCenterY() + mKeyRadius / 2) - top,
+                    mKeyTextPaint.getColor());
+        }
+        canvas.drawBitmap(mBackSpaceIcon, left, top, null);
     }
 
     /**
@@ -272,18 +275,9 @@ public final class RoundKey extends Key {
      */
     @Override
     public boolean isKeyPressed(float touchX, float touchY) {
-        if (getDigit().isEmpty()) return false;  //Empty key
-
-        //Check if the click is between the width bounds
-        //noinspection SimplifiableIfStatement
-        if (touchX > getBounds().exactCenterX() - mKeyRadius
-                && touchX < getBounds().exactCenterX() + mKeyRadius) {
+        if (getKeyCode() == KeyNamesBuilder.KEY_CODE_EMPTY) return false;  //Empty key
 
-            //Check if the click is between the height bounds
-            return touchY > getBounds().exactCenterY() - mKeyRadius
-                    && touchY < getBounds().exactCenterY() + mKeyRadius;
-        }
-        return false;
+        return isInTouchArea(touchX, touchY);
     }
 
     public static class Builder extends Key.Builder {
@@ -317,6 +311,40 @@ public final class RoundKey extends Key {
         @ColorInt
         private int mKeyTextColor;
 
+        /**
+         * {@link Paint} of the key shared by all the keys built by this builder. This will be created
+         * lazily and cleared whenever any paint parameter changes.
+         */
+        @Nullable
+        private Paint mKeyPaint;
+
+        /**
+         * {@link TextPaint} of the key title shared by all the keys built by this builder. This will
+         * be created lazily and cleared whenever any paint parameter changes.
+         */
+        @Nullable
+        private TextPaint mKeyTextPaint;
+
+        /**
+         * Vertical offset from the center of the key to the baseline of the title. This will be
+         * calculated lazily and cleared whenever any paint parameter changes.
+         */
+        private float mTextCenterOffset = Float.NaN;
+
+        /**
+         * True to fit the key title into each key instead of using the fixed text size.
+         *
+         * @see KeyTextFitter
+         */
+        private boolean isAutoFitText = false;
+
+        /**
+         * Key title paints for the fitted text sizes shared by all the keys built by this builder.
+         * These will be created lazily and cleared whenever any paint parameter changes.
+         */
+        @NonNull
+        private final SparseArray<TextPaint> mFittedTextPaints = new SparseArray<>();
+
         public Builder(@NonNull final BasePasscodeView passcodeView) {
             super(passcodeView);
             setDefaults(getContext());
@@ -337,51 +365,129 @@ public final class RoundKey extends Key {
         @NonNull
         public RoundKey.Builder setKeyTextSize(final float keyTextSize) {
             mKeyTextSize = keyTextSize;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public RoundKey.Builder setKeyTextSize(@DimenRes final int keyTextSize) {
             mKeyTextSize = getContext().getResources().getDimension(keyTextSize);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public RoundKey.Builder setKeyStrokeWidth(final float keyStrokeWidth) {
             mKeyStrokeWidth = keyStrokeWidth;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public RoundKey.Builder setKeyStrokeWidth(@DimenRes final int keyStrokeWidth) {
             mKeyStrokeWidth = getContext().getResources().getDimension(keyStrokeWidth);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public RoundKey.Builder setKeyStrokeColor(@ColorInt final int keyStrokeColor) {
             mKeyStrokeColor = keyStrokeColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public RoundKey.Builder setKeyStrokeColorResource(@ColorRes final int keyStrokeColor) {
             mKeyStrokeColor = getContext().getResources().getColor(keyStrokeColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public RoundKey.Builder setKeyTextColor(@ColorInt final int keyTextColor) {
             mKeyTextColor = keyTextColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public RoundKey.Builder setKeyTextColorResource(@ColorRes final int keyTextColor) {
             mKeyTextColor = getContext().getResources().getColor(keyTextColor);
+            clearPaints();
             return this;
         }
 
+        /**
+         * @return {@link Paint} of the key shared by all the keys built by this builder.
+         */
+        @NonNull
+        Paint getKeyPaint() {
+            if (mKeyPaint == null) {
+                mKeyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mKeyPaint.setStyle(Paint.Style.STROKE);
+                mKeyPaint.setColor(mKeyStrokeColor);
+                mKeyPaint.setTextSize(mKeyTextSize);
+                mKeyPaint.setStrokeWidth(mKeyStrokeWidth);
+            }
+            return mKeyPaint;
+        }
+
+        /**
+         * Pick the largest text size at which the title fits into each key. Useful if the same
+         * layout runs on the small phones and the tablets. The fixed text size is ignored in this
+         * mode.
+         *
+         * @param autoFitText True to fit the text into the keys.
+         */
+        @NonNull
+        public RoundKey.Builder setAutoFitText(final boolean autoFitText) {
+            isAutoFitText = autoFitText;
+            clearPaints();
+            return this;
+        }
+
+        public boolean isAutoFitText() {
+            return isAutoFitText;
+        }
+
+        /**
+         * @return {@link TextPaint} of the key title shared by all the keys built by this builder.
+         */
+        @NonNull
+        TextPaint getKeyTextPaint() {
+            if (mKeyTextPaint == null) {
+                mKeyTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+                mKeyTextPaint.setColor(mKeyTextColor);
+                mKeyTextPaint.setTextSize(mKeyTextSize);
+                mKeyTextPaint.setFakeBoldText(true);
+                mKeyTextPaint.setTextAlign(Paint.Align.CENTER);
+            }
+            return mKeyTextPaint;
+        }
+
+        /**
+         * @return Vertical offset from the center of the key to the baseline of the title text.
+         * @see PrewarmCache#getTextCenterOffset(Context, TextPaint)
+         */
+        float getTextCenterOffset() {
+            if (Float.isNaN(mTextCenterOffset)) {
+                mTextCenterOffset = PrewarmCache.getTextCenterOffset(getContext(), getKeyTextPaint());
+            }
+            return mTextCenterOffset;
+        }
+
+        /**
+         * Clear the shared paints. Those will be created again with new parameters while building
+         * the next key. Keys that are already built will keep the old paints.
+         */
+        private void clearPaints() {
+            mKeyPaint = null;
+            mKeyTextPaint = null;
+            mTextCenterOffset = Float.NaN;
+            mFittedTextPaints.clear();
+        }
+
         @Override
         public Key buildInternal(@NonNull final String keyTitle,
                                  @NonNull final Rect bound) {
@@ -391,9 +497,9 @@ public final class RoundKey extends Key {
         private void setDefaults(@NonNull Context context) {
             mKeyTextColor = context.getResources().getColor(R.color.lib_key_default_color);
             mKeyStrokeColor = context.getResources().getColor(R.color.lib_key_background_color);
-            mKeyTextSize = context.getResources().getDimension(R.dimen.lib_key_text_size);
-            mKeyStrokeWidth = context.getResources().getDimension(R.dimen.lib_key_stroke_width);
-            mKeyPadding = getContext().getResources().getDimension(R.dimen.lib_key_padding);
+            mKeyTextSize = getDimens().getKeyTextSize();
+            mKeyStrokeWidth = getDimens().getKeyStrokeWidth();
+            mKeyPadding = getDimens().getKeyPadding();
         }
     }
 }
@@ -14,25 +14,28 @@
 
 package com.kevalpatel.passcodeview.keys;
 
-import android.animation.ValueAnimator;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffColorFilter;
 import android.graphics.Rect;
-import android.graphics.drawable.Drawable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.ColorRes;
 import android.support.annotation.DimenRes;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.text.TextPaint;
-import android.view.animation.CycleInterpolator;
+import android.util.SparseArray;
 
 import com.kevalpatel.passcodeview.R;
 import com.kevalpatel.passcodeview.Utils;
 import com.kevalpatel.passcodeview.internal.BasePasscodeView;
+import com.kevalpatel.passcodeview.internal.FrameAnimator;
+import com.kevalpatel.passcodeview.internal.KeyTextFitter;
+import com.kevalpatel.passcodeview.internal.PrewarmCache;
+import com.kevalpatel.passcodeview.internal.ShapeCache;
+import com.kevalpatel.passcodeview.internal.TaskScheduler;
 
 /**
  * Created by Keval on 06-Apr-17.
@@ -53,30 +56,43 @@ public final class SquareKey extends Key {
     @NonNull
     private final Builder mBuilder;
     /**
-     * {@link ValueAnimator} for the authentication error. This animator will shake the view left-right
-     * for two times.
+     * {@link Paint} of the key. This is shared by all the keys built using same {@link Builder}.
      */
     @NonNull
-    private final ValueAnimator mErrorAnimator;
+    private final Paint mKeyPaint;
     /**
-     * {@link Paint} of the key.
+     * {@link TextPaint} of the key title text. This is shared by all the keys built using same
+     * {@link Builder}.
      */
     @NonNull
-    private final Paint mKeyPaint;
+    private TextPaint mKeyTextPaint;
+
     /**
-     * {@link TextPaint} of the key title text.
+     * Vertical offset from the center of the key to the baseline of the title text.
      */
-    @NonNull
-    private final TextPaint mKeyTextPaint;
+    private float mTextCenterOffset;
     /**
-     * {@link Paint} of the ripple animations.
+     * {@link Paint} of the key while the click animation is running. This is shared by all the
+     * keys built using same {@link Builder}.
      */
     @NonNull
     private final Paint mRipplePaint;
+    /**
+     * Pre-tinted backspace icon shared through the {@link ShapeCache}. This will be loaded when the
+     * key is drawn as backspace for the first time.
+     */
+    @Nullable
+    private Bitmap mBackSpaceIcon;
     /**
      * True if the click animations are running or not.
      */
     private boolean isClickedAnimationRunning = false;
+    /**
+     * Task to end the click animation after {@link #ANIMATION_DURATION}. This will be created when
+     * the key is clicked and released when the click animation ends.
+     */
+    @Nullable
+    private TaskScheduler.Task mClickEndTask;
 
     /**
      * Public constructor.
@@ -88,37 +104,32 @@ public final class SquareKey extends Key {
 
         mBuilder = builder;
 
-        //Set the keyboard paint
-        mKeyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mKeyPaint.setStyle(Paint.Style.STROKE);
-        mKeyPaint.setColor(builder.mKeyStrokeColor);
-        mKeyPaint.setTextSize(builder.mKeyTextSize);
-        mKeyPaint.setStrokeWidth(builder.mKeyStrokeWidth);
-
-        //Set the keyboard text paint
-        mKeyTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
-        mKeyTextPaint.setColor(builder.mKeyTextColor);
-        mKeyTextPaint.setTextSize(builder.mKeyTextSize);
-        mKeyTextPaint.setFakeBoldText(true);
-        mKeyTextPaint.setTextAlign(Paint.Align.CENTER);
-
-        //Ripple paint
-        mRipplePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mRipplePaint.setStyle(Paint.Style.STROKE);
-        mRipplePaint.setColor(Utils.makeColorDark(builder.mKeyStrokeColor));
-        mRipplePaint.setStrokeWidth(builder.mKeyStrokeWidth);
-
-        //Error animator
-        mErrorAnimator = ValueAnimator.ofInt(0, 10);
-        mErrorAnimator.setInterpolator(new CycleInterpolator(2));
-        mErrorAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                getBounds().left += (int) animation.getAnimatedValue();
-                getBounds().right += (int) animation.getAnimatedValue();
-                getPasscodeView().invalidate();
-            }
-        });
+        //Shared paints
+        mKeyPaint = builder.getKeyPaint();
+        applyTitleText(keyTitle);
+        mRipplePaint = builder.getRipplePaint();
+
+    }
+
+    @Override
+    protected void onDigitChanged(@NonNull final String digit) {
+        applyTitleText(digit);
+    }
+
+    /**
+     * Pick the text paint and the baseline offset for the title. In the auto-fit mode those depend
+     * on the title.
+     */
+    private void applyTitleText(@NonNull final String keyTitle) {
+        if (mBuilder.isAutoFitText && !keyTitle.isEmpty()) {
+            final int textBox = (int) ((Math.min(getBounds().height(), getBounds().width()) - mBuilder.mKeyPadding) * KeyTextFitter.FILL_RATIO);
+            final KeyTextFitter.Fit fit = KeyTextFitter.fit(mBuilder.getKeyTextPaint(), keyTitle, textBox, textBox);
+            mKeyTextPaint = KeyTextFitter.obtainPaint(mBuilder.mFittedTextPaints, mBuilder.getKeyTextPaint(), fit.getTextSize());
+            mTextCenterOffset = fit.getCenterOffset();
+        } else {
+            mKeyTextPaint = mBuilder.getKeyTextPaint();
+            mTextCenterOffset = mBuilder.getTextCenterOffset();
+        }
     }
 
     /**
@@ -131,21 +142,37 @@ public final class SquareKey extends Key {
         isClickedAnimationRunning = true;
         getPasscodeView().invalidate();
 
-        new android.os.Handler().postDelayed(new Runnable() {
+        if (mClickEndTask == null) mClickEndTask = createClickEndTask();
+        getPasscodeView().getTaskScheduler().schedule(mClickEndTask, ANIMATION_DURATION);
+    }
+
+    @NonNull
+    private TaskScheduler.Task createClickEndTask() {
+        return new TaskScheduler.Task() {
             @Override
-            public void run() {
-                isClickedAnimationRunning = false;
+            protected void onRun() {
+                onClickAnimationEnd();
                 getPasscodeView().invalidate();
             }
-        }, ANIMATION_DURATION);
+
+            @Override
+            protected void onCancel() {
+                onClickAnimationEnd();
+            }
+        };
+    }
+
+    private void onClickAnimationEnd() {
+        isClickedAnimationRunning = false;
+        mClickEndTask = null;
     }
 
     /**
-     * Show animation indicated invalid pin code
+     * Handle the authentication failure. The whole keypad shakes, so nothing to do here.
      */
     @Override
     public void onAuthFail() {
-        mErrorAnimator.start();
+        //Do nothing
     }
 
     /**
@@ -158,8 +185,8 @@ public final class SquareKey extends Key {
     public void drawText(@NonNull Canvas canvas) {
         //Draw key text
         canvas.drawText(getDigit() + "",                //Text to display on key
-                getBounds().exactCenterX(),                 //Set start point at center width of key
-                getBounds().exactCenterY() - (mKeyTextPaint.descent() + mKeyTextPaint.ascent()) / 2,    //center height of key - text height/2
+                getCenterX(),                 //Set start point at center width of key
+                getCenterY() + mTextCenterOffset,    //center height of key - text height/2
                 mKeyTextPaint);
     }
 
@@ -168,24 +195,28 @@ public final class SquareKey extends Key {
         float distanceToCenter = (Math.min(getBounds().height(), getBounds().width()) - mBuilder.mKeyPadding) / 2;
 
         //Draw circle background
-        canvas.drawRect(getBounds().exactCenterX() - distanceToCenter,
-                getBounds().exactCenterY() - distanceToCenter,
-                getBounds().exactCenterX() + distanceToCenter,
-                getBounds().exactCenterY() + distanceToCenter,
+        canvas.drawRect(getCenterX() - distanceToCenter,
+                getCenterY() - distanceToCenter,
+                getCenterX() + distanceToCenter,
+                getCenterY() + distanceToCenter,
                 isClickedAnimationRunning ? mRipplePaint : mKeyPaint);
 
     }
 
     @Override
-    public void drawBackSpace(@NonNull Canvas canvas, @NonNull Drawable backSpaceIcon) {
-        backSpaceIcon.setColorFilter(new PorterDuffColorFilter(mKeyTextPaint.getColor(), PorterDuff.Mode.SRC_ATOP));
-
+    public void drawBackSpace(@NonNull Canvas canvas) {
         float distanceToCenter = (Math.min(getBounds().height(), getBounds().width()) - mBuilder.mKeyPadding) / 3;
-        backSpaceIcon.setBounds((int) (getBounds().exactCenterX() - distanceToCenter),
-                (int) (getBounds().exactCenterY() - distanceToCenter),
-                (int) (getBounds().exactCenterX() + distanceToCenter),
-                (int) (getBounds().exactCenterY() + distanceToCenter));
-        backSpaceIcon.draw(canvas);
+        final int left = (int) (getCenterX() - distanceToCenter);
+        final int top = (int) (getCenterY() - distanceToCenter);
+
+        if (mBackSpaceIcon == null) {
+            mBackSpaceIcon = ShapeCache.getIcon(getContext(),
+                    R.drawable.ic_back_space,
+                    (int) (getCenterX() + distanceToCenter) - left,
+                    (int) (getCenterY() + distanceToCenter) - top,
+                    mKeyTextPaint.getColor());
+        }
+        canvas.drawBitmap(mBackSpaceIcon, left, top, null);
     }
 
     /**
@@ -197,15 +228,7 @@ public final class SquareKey extends Key {
      */
     @Override
     public boolean isKeyPressed(float touchX, float touchY) {
-
-        //Check if the click is between the width bounds
-        //noinspection SimplifiableIfStatement
-        if (touchX > getBounds().left && touchX < getBounds().right) {
-
-            //Check if the click is between the height bounds
-            return touchY > getBounds().top && touchY < getBounds().bottom;
-        }
-        return false;
+        return isInTouchArea(touchX, touchY);
     }
 
     @Override
@@ -245,6 +268,47 @@ public final class SquareKey extends Key {
         @ColorInt
         private int mKeyTextColor;
 
+        /**
+         * {@link Paint} of the key shared by all the keys built by this builder. This will be created
+         * lazily and cleared whenever any paint parameter changes.
+         */
+        @Nullable
+        private Paint mKeyPaint;
+
+        /**
+         * {@link TextPaint} of the key title shared by all the keys built by this builder. This will
+         * be created lazily and cleared whenever any paint parameter changes.
+         */
+        @Nullable
+        private TextPaint mKeyTextPaint;
+
+        /**
+         * Vertical offset from the center of the key to the baseline of the title. This will be
+         * calculated lazily and cleared whenever any paint parameter changes.
+         */
+        private float mTextCenterOffset = Float.NaN;
+
+        /**
+         * True to fit the key title into each key instead of using the fixed text size.
+         *
+         * @see KeyTextFitter
+         */
+        private boolean isAutoFitText = false;
+
+        /**
+         * Key title paints for the fitted text sizes shared by all the keys built by this builder.
+         * These will be created lazily and cleared whenever any paint parameter changes.
+         */
+        @NonNull
+        private final SparseArray<TextPaint> mFittedTextPaints = new SparseArray<>();
+
+        /**
+         * {@link Paint} of the clicked key shared by all the keys built by this builder. This will be
+         * created lazily and cleared whenever any paint parameter changes.
+         */
+        @Nullable
+        private Paint mRipplePaint;
+
         public Builder(@NonNull final BasePasscodeView passcodeView) {
             super(passcodeView);
             setDefaults(getContext());
@@ -253,63 +317,158 @@ public final class SquareKey extends Key {
         @NonNull
         public Builder setKeyPadding(@DimenRes final int keyPaddingRes) {
             mKeyPadding = getContext().getResources().getDimension(keyPaddingRes);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyPadding(@Dimension final float keyPadding) {
             mKeyPadding = keyPadding;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyTextSize(@DimenRes final int keyTextSize) {
             mKeyTextSize = getContext().getResources().getDimension(keyTextSize);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyTextSize(final float keyTextSize) {
             mKeyTextSize = keyTextSize;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyStrokeWidth(@DimenRes final int keyStrokeWidth) {
             mKeyStrokeWidth = getContext().getResources().getDimension(keyStrokeWidth);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyStrokeWidth(final float keyStrokeWidth) {
             mKeyStrokeWidth = keyStrokeWidth;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyStrokeColor(@ColorInt final int keyStrokeColor) {
             mKeyStrokeColor = keyStrokeColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyStrokeColorResource(@ColorRes final int keyStrokeColor) {
             mKeyStrokeColor = getContext().getResources().getColor(keyStrokeColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyTextColor(@ColorInt final int keyTextColor) {
             mKeyTextColor = keyTextColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public Builder setKeyTextColorResource(@ColorRes final int keyTextColor) {
             mKeyTextColor = getContext().getResources().getColor(keyTextColor);
+            clearPaints();
+            return this;
+        }
+
+        /**
+         * @return {@link Paint} of the key shared by all the keys built by this builder.
+         */
+        @NonNull
+        Paint getKeyPaint() {
+            if (mKeyPaint == null) {
+                mKeyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mKeyPaint.setStyle(Paint.Style.STROKE);
+                mKeyPaint.setColor(mKeyStrokeColor);
+                mKeyPaint.setTextSize(mKeyTextSize);
+                mKeyPaint.setStrokeWidth(mKeyStrokeWidth);
+            }
+            return mKeyPaint;
+        }
+
+        /**
+         * Pick the largest text size at which the title fits into each key. Useful if the same
+         * layout runs on the small phones and the tablets. The fixed text size is ignored in this
+         * mode.
+         *
+         * @param autoFitText True to fit the text into the keys.
+         */
+        @NonNull
+        public Builder setAutoFitText(final boolean autoFitText) {
+            isAutoFitText = autoFitText;
+            clearPaints();
             return this;
         }
 
+        public boolean isAutoFitText() {
+            return isAutoFitText;
+        }
+
+        /**
+         * @return {@link TextPaint} of the key title shared by all the keys built by this builder.
+         */
+        @NonNull
+        TextPaint getKeyTextPaint() {
+            if (mKeyTextPaint == null) {
+                mKeyTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+                mKeyTextPaint.setColor(mKeyTextColor);
+                mKeyTextPaint.setTextSize(mKeyTextSize);
+                mKeyTextPaint.setFakeBoldText(true);
+                mKeyTextPaint.setTextAlign(Paint.Align.CENTER);
+            }
+            return mKeyTextPaint;
+        }
+
+        /**
+         * @return Vertical offset from the center of the key to the baseline of the title text.
+         * @see PrewarmCache#getTextCenterOffset(Context, TextPaint)
+         */
+        float getTextCenterOffset() {
+            if (Float.isNaN(mTextCenterOffset)) {
+                mTextCenterOffset = PrewarmCache.getTextCenterOffset(getContext(), getKeyTextPaint());
+            }
+            return mTextCenterOffset;
+        }
+
+        /**
+         * @return {@link Paint} of the clicked key shared by all the keys built by this builder.
+         */
+        @NonNull
+        Paint getRipplePaint() {
+            if (mRipplePaint == null) {
+                mRipplePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mRipplePaint.setStyle(Paint.Style.STROKE);
+                mRipplePaint.setColor(Utils.makeColorDark(mKeyStrokeColor));
+                mRipplePaint.setStrokeWidth(mKeyStrokeWidth);
+            }
+            return mRipplePaint;
+        }
+
+        /**
+         * Clear the shared paints. Those will be created again with new parameters while building
+         * the next key. Keys that are already built will keep the old paints.
+         */
+        private void clearPaints() {
+            mKeyPaint = null;
+            mKeyTextPaint = null;
+            mTextCenterOffset = Float.NaN;
+            mFittedTextPaints.clear();
+            mRipplePaint = null;
+        }
+
         @NonNull
         @Override
         public SquareKey buildInternal(@NonNull final String keyTitle,
@@ -320,9 +479,9 @@ public final class SquareKey extends Key {
         private void setDefaults(@NonNull final Context context) {
             mKeyTextColor = context.getResources().getColor(R.color.lib_key_default_color);
             mKeyStrokeColor = context.getResources().getColor(R.color.lib_key_background_color);
-            mKeyTextSize = context.getResources().getDimension(R.dimen.lib_key_text_size);
-            mKeyStrokeWidth = context.getResources().getDimension(R.dimen.lib_key_stroke_width);
-            mKeyPadding = getContext().getResources().getDimension(R.dimen.lib_key_padding);
+            mKeyTextSize = getDimens().getKeyTextSize();
+            mKeyStrokeWidth = getDimens().getKeyStrokeWidth();
+            mKeyPadding = getDimens().getKeyPadding();
         }
     }
 }
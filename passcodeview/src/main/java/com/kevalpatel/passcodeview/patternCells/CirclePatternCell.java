@@ -23,6 +23,7 @@ import android.support.annotation.ColorRes;
 import android.support.annotation.DimenRes;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.kevalpatel.passcodeview.PinView;
 import com.kevalpatel.passcodeview.R;
@@ -38,15 +39,19 @@ public final class CirclePatternCell extends PatternCell {
 
     @NonNull
     private final Builder mBuilder;
-    private boolean isDisplayError;
-
-    private float mTouchRadius;
 
+    /**
+     * Shared paints to draw the cells in the batch.
+     *
+     * @see #getBatchPaint()
+     */
     @NonNull
-    private final Paint mCellPaint;             //Empty indicator color
-
+    private final Paint mCellPaint;
+    @NonNull
+    private final Paint mErrorPointPaint;
     @NonNull
-    private final Paint mErrorPaint;             //Error indicator color
+    private final Paint mSelectedPaint;
+    private final float mRadius;
 
     private CirclePatternCell(@NonNull final CirclePatternCell.Builder builder,
                               @NonNull final Rect bound,
@@ -54,43 +59,53 @@ public final class CirclePatternCell extends PatternCell {
         super(builder, bound, point);
         mBuilder = builder;
 
-        mTouchRadius = mBuilder.mRadius < getContext().getResources().getDimension(R.dimen.lib_min_touch_radius)
-                ? mBuilder.mRadius + 20 : mBuilder.mRadius;
-
-        //Set empty dot paint
-        mCellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mCellPaint.setStyle(Paint.Style.STROKE);
-        mCellPaint.setColor(builder.mNormalColor);
-        mCellPaint.setStrokeWidth(builder.mStrokeWidth);
+        setTouchRadius(builder.getTouchRadius());
 
-        //Set filled dot paint
-        mErrorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mErrorPaint.setColor(Color.RED);
+        //Shared paints
+        mCellPaint = builder.getCellPaint();
+        mErrorPointPaint = builder.getErrorPointPaint();
+        mSelectedPaint = builder.getSelectedPaint();
+        mRadius = builder.mRadius;
     }
 
     /**
-     * Draw the indicator.
+     * Draw the indicator. The box draws the built-in cells in the batch, so this is only for
+     * drawing the single cell. It uses the same paints as the batch: rings for the stroke paints
+     * and points for the others.
      *
      * @param canvas Canvas of {@link PinView}.
      */
     @Override
     public void draw(@NonNull Canvas canvas) {
-        canvas.drawCircle(getBound().exactCenterX(),
-                getBound().exactCenterY(),
-                mBuilder.mRadius,
-                isDisplayError ? mErrorPaint : mCellPaint);
+        final Paint paint = getBatchPaint();
+        if (paint.getStyle() == Paint.Style.STROKE) {
+            canvas.drawCircle(getCenterX(), getCenterY(), mRadius, paint);
+        } else {
+            canvas.drawPoint(getCenterX(), getCenterY(), paint);
+        }
+    }
+
+    @NonNull
+    @Override
+    public Paint getBatchPaint() {
+        switch (getState()) {
+            case STATE_ERROR:
+                return mErrorPointPaint;
+            case STATE_SELECTED:
+                return mSelectedPaint;
+            default:
+                return mCellPaint;
+        }
+    }
+
+    @Override
+    public float getBatchRadius() {
+        return mRadius;
     }
 
     @Override
     public void onAuthFailed() {
-        new android.os.Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                isDisplayError = false;
-                getRootView().invalidate();
-            }
-        }, 400);
-        isDisplayError = true;
+        //Do nothing. Error state is displayed through getState().
     }
 
     @Override
@@ -100,73 +115,197 @@ public final class CirclePatternCell extends PatternCell {
 
     @Override
     public boolean isIndicatorTouched(float touchX, float touchY) {
-        //Check if the click is between the width bounds
-        //noinspection SimplifiableIfStatement
-        if (touchX > getBound().exactCenterX() - mTouchRadius
-                && touchX < getBound().exactCenterX() + mTouchRadius) {
-
-            //Check if the click is between the height bounds
-            return touchY > getBound().exactCenterY() - mTouchRadius
-                    && touchY < getBound().exactCenterY() + mTouchRadius;
-        }
-        return false;
+        return isInTouchArea(touchX, touchY);
     }
 
     public static class Builder extends PatternCell.Builder {
         @ColorInt
         private int mNormalColor;              //Empty indicator stroke color
+        /**
+         * Stroke color of the cells selected while drawing the pattern. Null to use
+         * {@link #mNormalColor}.
+         */
+        @Nullable
+        private Integer mSelectedColor;
         @Dimension
         private float mRadius;
         @Dimension
         private float mStrokeWidth;
 
+        /**
+         * {@link Paint} of the cell shared by all the cells built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mCellPaint;
+
+        /**
+         * {@link Paint} of the error cell shared by all the cells built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mErrorPaint;
+
+        /**
+         * Point paint of the error cell shared by all the cells built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mErrorPointPaint;
+
+        /**
+         * {@link Paint} of the selected cell shared by all the cells built by this builder. This
+         * will be created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mSelectedPaint;
+
+        /**
+         * Touch radius shared by all the cells built by this builder. This will be calculated lazily
+         * and cleared whenever any parameter changes.
+         */
+        private float mTouchRadius = -1;
+
         public Builder(@NonNull final BasePasscodeView basePasscodeView) {
             super(basePasscodeView);
             setDefaults();
         }
 
         private void setDefaults() {
-            mRadius = getContext().getResources().getDimension(R.dimen.lib_indicator_radius);
-            mStrokeWidth = getContext().getResources().getDimension(R.dimen.lib_indicator_stroke_width);
+            mRadius = getRootView().getDimens().getIndicatorRadius();
+            mStrokeWidth = getRootView().getDimens().getIndicatorStrokeWidth();
             mNormalColor = getContext().getResources().getColor(R.color.lib_indicator_stroke_color);
         }
 
         @NonNull
         public CirclePatternCell.Builder setNormalColor(@ColorInt final int normalColor) {
             mNormalColor = normalColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CirclePatternCell.Builder setCellColorResource(@ColorRes final int indicatorStrokeColor) {
             mNormalColor = getContext().getResources().getColor(indicatorStrokeColor);
+            clearPaints();
+            return this;
+        }
+
+        @NonNull
+        public CirclePatternCell.Builder setSelectedColor(@ColorInt final int selectedColor) {
+            mSelectedColor = selectedColor;
+            clearPaints();
+            return this;
+        }
+
+        @NonNull
+        public CirclePatternCell.Builder setSelectedColorResource(@ColorRes final int selectedColor) {
+            mSelectedColor = getContext().getResources().getColor(selectedColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CirclePatternCell.Builder setRadius(@Dimension final float radius) {
             mRadius = radius;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CirclePatternCell.Builder setRadius(@DimenRes final int indicatorRadius) {
             mRadius = getContext().getResources().getDimension(indicatorRadius);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CirclePatternCell.Builder setStrokeWidth(@Dimension final float strokeWidth) {
             mStrokeWidth = strokeWidth;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public CirclePatternCell.Builder setStrokeWidth(@DimenRes final int indicatorStrokeWidth) {
             mStrokeWidth = getContext().getResources().getDimension(indicatorStrokeWidth);
+            clearPaints();
             return this;
         }
 
+        /**
+         * @return {@link Paint} of the cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getCellPaint() {
+            if (mCellPaint == null) {
+                mCellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mCellPaint.setStyle(Paint.Style.STROKE);
+                mCellPaint.setColor(mNormalColor);
+                mCellPaint.setStrokeWidth(mStrokeWidth);
+            }
+            return mCellPaint;
+        }
+
+        /**
+         * @return {@link Paint} of the error cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getErrorPaint() {
+            if (mErrorPaint == null) {
+                mErrorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mErrorPaint.setColor(Color.RED);
+            }
+            return mErrorPaint;
+        }
+
+        /**
+         * @return {@link Paint} of the selected cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getSelectedPaint() {
+            if (mSelectedColor == null) return getCellPaint();
+
+            if (mSelectedPaint == null) {
+                mSelectedPaint = new Paint(getCellPaint());
+                mSelectedPaint.setColor(mSelectedColor);
+            }
+            return mSelectedPaint;
+        }
+
+        /**
+         * @return Point {@link Paint} of the error cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getErrorPointPaint() {
+            if (mErrorPointPaint == null) mErrorPointPaint = createPointPaint(getErrorPaint(), mRadius);
+            return mErrorPointPaint;
+        }
+
+        /**
+         * @return Radius around the center of the cell in which the touch will select the cell. Cells
+         * smaller than the minimum touch radius get the extra touch area.
+         */
+        float getTouchRadius() {
+            if (mTouchRadius < 0) {
+                mTouchRadius = mRadius < getRootView().getDimens().getMinTouchRadius()
+                        ? mRadius + 20 : mRadius;
+            }
+            return mTouchRadius;
+        }
+
+        /**
+         * Clear the shared paints and the touch radius. Those will be created again with new
+         * parameters while building the next cell. Already built ones will keep the old values.
+         */
+        private void clearPaints() {
+            mCellPaint = null;
+            mErrorPaint = null;
+            mErrorPointPaint = null;
+            mSelectedPaint = null;
+            mTouchRadius = -1;
+        }
+
         @NonNull
         @Override
         public PatternCell buildInternal(@NonNull Rect bound, @NonNull PatternPoint point) {
@@ -23,6 +23,7 @@ import android.support.annotation.ColorRes;
 import android.support.annotation.DimenRes;
 import android.support.annotation.Dimension;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.kevalpatel.passcodeview.PatternView;
 import com.kevalpatel.passcodeview.PinView;
@@ -39,15 +40,17 @@ public final class DotPatternCell extends PatternCell {
     @NonNull
     private final DotPatternCell.Builder mBuilder;
 
-    private final float mTouchRadius;
-
+    /**
+     * Shared paints to draw the cells in the batch.
+     *
+     * @see #getBatchPaint()
+     */
     @NonNull
-    private final Paint mCellPaint;             //Empty indicator color
-
+    private final Paint mCellPointPaint;
     @NonNull
-    private final Paint mErrorCellPaint;             //Error indicator color
-
-    private boolean isDisplayError;
+    private final Paint mErrorCellPointPaint;
+    @NonNull
+    private final Paint mSelectedCellPointPaint;
 
     private DotPatternCell(@NonNull final DotPatternCell.Builder builder,
                            @NonNull final Rect bound,
@@ -55,41 +58,41 @@ public final class DotPatternCell extends PatternCell {
         super(builder, bound, point);
         mBuilder = builder;
 
-        mTouchRadius = mBuilder.mRadius < getContext().getResources().getDimension(R.dimen.lib_min_touch_radius)
-                ? mBuilder.mRadius + 20 : mBuilder.mRadius;
-
-        //Set empty dot paint
-        mCellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mCellPaint.setColor(builder.mCellColor);
+        setTouchRadius(builder.getTouchRadius());
 
-        //Set filled dot paint
-        mErrorCellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mErrorCellPaint.setColor(Color.RED);
+        //Shared paints
+        mCellPointPaint = builder.getCellPointPaint();
+        mErrorCellPointPaint = builder.getErrorCellPointPaint();
+        mSelectedCellPointPaint = builder.getSelectedCellPointPaint();
     }
 
     /**
-     * Draw the indicator.
+     * Draw the indicator. The box draws the built-in cells in the batch, so this is only for
+     * drawing the single cell. It uses the same point paint as the batch.
      *
      * @param canvas Canvas of {@link PinView}.
      */
     @Override
     public void draw(@NonNull final Canvas canvas) {
-        canvas.drawCircle(getBound().exactCenterX(),
-                getBound().exactCenterY(),
-                mBuilder.mRadius,
-                isDisplayError ? mErrorCellPaint : mCellPaint);
+        canvas.drawPoint(getCenterX(), getCenterY(), getBatchPaint());
+    }
+
+    @NonNull
+    @Override
+    public Paint getBatchPaint() {
+        switch (getState()) {
+            case STATE_ERROR:
+                return mErrorCellPointPaint;
+            case STATE_SELECTED:
+                return mSelectedCellPointPaint;
+            default:
+                return mCellPointPaint;
+        }
     }
 
     @Override
     public void onAuthFailed() {
-        new android.os.Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                isDisplayError = false;
-                getRootView().invalidate();
-            }
-        }, 400);
-        isDisplayError = true;
+        //Do nothing. Error state is displayed through getState().
     }
 
     @Override
@@ -99,24 +102,58 @@ public final class DotPatternCell extends PatternCell {
 
     @Override
     public boolean isIndicatorTouched(final float touchX, final float touchY) {
-        //Check if the click is between the width bounds
-        //noinspection SimplifiableIfStatement
-        if (touchX > getBound().exactCenterX() - mTouchRadius
-                && touchX < getBound().exactCenterX() + mTouchRadius) {
-
-            //Check if the click is between the height bounds
-            return touchY > getBound().exactCenterY() - mTouchRadius
-                    && touchY < getBound().exactCenterY() + mTouchRadius;
-        }
-        return false;
+        return isInTouchArea(touchX, touchY);
     }
 
     public static class Builder extends PatternCell.Builder {
         @ColorInt
         private int mCellColor;              //Empty indicator stroke color
+        /**
+         * Color of the cells selected while drawing the pattern. Null to use {@link #mCellColor}.
+         */
+        @Nullable
+        private Integer mSelectedCellColor;
         @Dimension
         private float mRadius;
 
+        /**
+         * {@link Paint} of the cell shared by all the cells built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mCellPaint;
+
+        /**
+         * {@link Paint} of the error cell shared by all the cells built by this builder. This will be
+         * created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mErrorCellPaint;
+
+        /**
+         * Point paints of the cell and the error cell shared by all the cells built by this
+         * builder. These will be created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mCellPointPaint;
+        @Nullable
+        private Paint mErrorCellPointPaint;
+
+        /**
+         * Paint and point paint of the selected cell shared by all the cells built by this builder.
+         * These will be created lazily and cleared whenever any parameter changes.
+         */
+        @Nullable
+        private Paint mSelectedCellPaint;
+        @Nullable
+        private Paint mSelectedCellPointPaint;
+
+        /**
+         * Touch radius shared by all the cells built by this builder. This will be calculated lazily
+         * and cleared whenever any parameter changes.
+         */
+        private float mTouchRadius = -1;
+
 
         public Builder(@NonNull final PatternView patternView) {
             super(patternView);
@@ -124,34 +161,148 @@ public final class DotPatternCell extends PatternCell {
         }
 
         private void setDefaults() {
-            mRadius = getContext().getResources().getDimension(R.dimen.lib_dot_cell_radius_radius);
+            mRadius = getRootView().getDimens().getDotCellRadius();
             mCellColor = getContext().getResources().getColor(R.color.lib_indicator_stroke_color);
         }
 
         @NonNull
         public DotPatternCell.Builder setCellColor(@ColorInt final int normalColor) {
             mCellColor = normalColor;
+            clearPaints();
             return this;
         }
 
         @NonNull
         public DotPatternCell.Builder setCellColorResource(@ColorRes final int indicatorStrokeColor) {
             mCellColor = getContext().getResources().getColor(indicatorStrokeColor);
+            clearPaints();
+            return this;
+        }
+
+        @NonNull
+        public DotPatternCell.Builder setSelectedCellColor(@ColorInt final int selectedColor) {
+            mSelectedCellColor = selectedColor;
+            clearPaints();
+            return this;
+        }
+
+        @NonNull
+        public DotPatternCell.Builder setSelectedCellColorResource(@ColorRes final int selectedColor) {
+            mSelectedCellColor = getContext().getResources().getColor(selectedColor);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public DotPatternCell.Builder setRadius(@DimenRes final int indicatorRadius) {
             mRadius = getContext().getResources().getDimension(indicatorRadius);
+            clearPaints();
             return this;
         }
 
         @NonNull
         public DotPatternCell.Builder setRadius(@Dimension final float radius) {
             mRadius = radius;
+            clearPaints();
             return this;
         }
 
+        /**
+         * @return {@link Paint} of the cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getCellPaint() {
+            if (mCellPaint == null) {
+                mCellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mCellPaint.setColor(mCellColor);
+            }
+            return mCellPaint;
+        }
+
+        /**
+         * @return {@link Paint} of the error cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getErrorCellPaint() {
+            if (mErrorCellPaint == null) {
+                mErrorCellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mErrorCellPaint.setColor(Color.RED);
+            }
+            return mErrorCellPaint;
+        }
+
+        /**
+         * @return {@link Paint} of the selected cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getSelectedCellPaint() {
+            if (mSelectedCellColor == null) return getCellPaint();
+
+            if (mSelectedCellPaint == null) {
+                mSelectedCellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mSelectedCellPaint.setColor(mSelectedCellColor);
+            }
+            return mSelectedCellPaint;
+        }
+
+        /**
+         * @return Point {@link Paint} of the selected cell shared by all the cells built by this
+         * builder.
+         */
+        @NonNull
+        Paint getSelectedCellPointPaint() {
+            if (mSelectedCellColor == null) return getCellPointPaint();
+
+            if (mSelectedCellPointPaint == null)
+                mSelectedCellPointPaint = createPointPaint(getSelectedCellPaint(), mRadius);
+            return mSelectedCellPointPaint;
+        }
+
+        /**
+         * @return Point {@link Paint} of the cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getCellPointPaint() {
+            if (mCellPointPaint == null) mCellPointPaint = createPointPaint(getCellPaint(), mRadius);
+            return mCellPointPaint;
+        }
+
+        /**
+         * @return Point {@link Paint} of the error cell shared by all the cells built by this builder.
+         */
+        @NonNull
+        Paint getErrorCellPointPaint() {
+            if (mErrorCellPointPaint == null)
+                mErrorCellPointPaint = createPointPaint(getErrorCellPaint(), mRadius);
+            return mErrorCellPointPaint;
+        }
+
+        /**
+         * @return Radius around the center of the cell in which the touch will select the cell. Cells
+         * smaller than the minimum touch radius get the extra touch area.
+         */
+        float getTouchRadius() {
+            if (mTouchRadius < 0) {
+                mTouchRadius = mRadius < getRootView().getDimens().getMinTouchRadius()
+                        ? mRadius + 20 : mRadius;
+            }
+            return mTouchRadius;
+        }
+
+        /**
+         * Clear the shared paints and the touch radius. Those will be created again with new
+         * parameters while building the next cell. Already built ones will keep the old values.
+         */
+        private void clearPaints() {
+            mCellPaint = null;
+            mErrorCellPaint = null;
+            mCellPointPaint = null;
+            mErrorCellPointPaint = null;
+            mSelectedCellPaint = null;
+            mSelectedCellPointPaint = null;
+            mTouchRadius = -1;
+        }
+
         @NonNull
         @Override
         public DotPatternCell buildInternal(@NonNull final Rect bound, @NonNull final PatternPoint point) {
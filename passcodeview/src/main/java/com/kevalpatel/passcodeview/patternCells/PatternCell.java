@@ -16,8 +16,10 @@ package com.kevalpatel.passcodeview.patternCells;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Rect;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.kevalpatel.passcodeview.internal.BasePasscodeView;
 
@@ -28,6 +30,16 @@ import com.kevalpatel.passcodeview.internal.BasePasscodeView;
  */
 public abstract class PatternCell {
 
+    /**
+     * Visual states of the cell.
+     *
+     * @see #getState()
+     */
+    public static final byte STATE_IDLE = 0;
+    public static final byte STATE_SELECTED = 1;
+    public static final byte STATE_ERROR = 2;
+    public static final byte STATE_SUCCESS = 3;
+
     @NonNull
     private final BasePasscodeView mPasscodeView;
 
@@ -37,12 +49,57 @@ public abstract class PatternCell {
     @NonNull
     private final PatternPoint mPoint;
 
+    /**
+     * Center of the {@link #mBound}. Calculated once, so drawing and hit-testing don't touch the
+     * {@link Rect}.
+     */
+    private final float mCenterX;
+    private final float mCenterY;
+
+    /**
+     * Half width and half height of the touch area around the center.
+     *
+     * @see #setTouchRadius(float)
+     */
+    private float mTouchHalfWidth;
+    private float mTouchHalfHeight;
+
+    /**
+     * States of all the cells of the pattern and index of this cell in it. The array is owned and
+     * updated by the box. Assigned by {@link Builder#build(Rect, PatternPoint, byte[], int)} after
+     * the cell is constructed.
+     */
+    @NonNull
+    private byte[] mStates = new byte[1];
+    private int mIndex = 0;
+
     protected PatternCell(@NonNull final PatternCell.Builder builder,
                           @NonNull final Rect bound,
                           @NonNull final PatternPoint location) {
         mPasscodeView = builder.mBasePasscodeView;
         mBound = bound;
         mPoint = location;
+
+        mCenterX = bound.exactCenterX();
+        mCenterY = bound.exactCenterY();
+        mTouchHalfWidth = bound.width() / 2f;
+        mTouchHalfHeight = bound.height() / 2f;
+    }
+
+    /**
+     * @return Current visual state of the cell. One of {@link #STATE_IDLE}, {@link #STATE_SELECTED},
+     * {@link #STATE_ERROR} or {@link #STATE_SUCCESS}.
+     */
+    protected final byte getState() {
+        return mStates[mIndex];
+    }
+
+    /**
+     * @return Index of the cell in the pattern box. Box uses it to update the state of the cell
+     * without searching for it.
+     */
+    public final int getIndex() {
+        return mIndex;
     }
 
     protected final BasePasscodeView getRootView() {
@@ -64,15 +121,78 @@ public abstract class PatternCell {
     }
 
     public float getCenterX() {
-        return mBound.exactCenterX();
+        return mCenterX;
     }
 
     public float getCenterY() {
-        return mBound.exactCenterY();
+        return mCenterY;
+    }
+
+    /**
+     * Limit the touch area of the cell to the square of given radius around the center of the cell.
+     * By default the whole {@link #getBound()} is the touch area.
+     *
+     * @param radius Radius of the touch area.
+     */
+    protected final void setTouchRadius(final float radius) {
+        mTouchHalfWidth = radius;
+        mTouchHalfHeight = radius;
+    }
+
+    /**
+     * @return True if the touch coordinates are inside the touch area of the cell.
+     * @see #setTouchRadius(float)
+     */
+    protected final boolean isInTouchArea(final float touchX, final float touchY) {
+        return touchX > mCenterX - mTouchHalfWidth
+                && touchX < mCenterX + mTouchHalfWidth
+                && touchY > mCenterY - mTouchHalfHeight
+                && touchY < mCenterY + mTouchHalfHeight;
     }
 
     public abstract void draw(@NonNull final Canvas canvas);
 
+    /**
+     * Get the {@link Paint} to draw this cell together with all the other cells of the box using
+     * the same paint in a single draw call. Paints with the {@link Paint.Style#STROKE} style are
+     * drawn as the rings of {@link #getBatchRadius()}. Other paints are drawn as points, so they
+     * should have {@link Paint.Cap#ROUND} cap and the diameter of the cell as the stroke width.
+     * <p>
+     * The paint should be shared between the cells. By default this returns null and the cell is
+     * drawn by {@link #draw(Canvas)}.
+     *
+     * @return {@link Paint} for the current state of the cell or null.
+     * @see #createPointPaint(Paint, float)
+     */
+    @Nullable
+    public Paint getBatchPaint() {
+        return null;
+    }
+
+    /**
+     * @return Radius of the ring if the {@link #getBatchPaint()} has {@link Paint.Style#STROKE}
+     * style.
+     */
+    public float getBatchRadius() {
+        return 0;
+    }
+
+    /**
+     * Create the {@link Paint} to draw the filled cell of given radius as a point.
+     *
+     * @param paint  {@link Paint} to draw the filled cell.
+     * @param radius Radius of the cell.
+     * @return New {@link Paint} for {@link #getBatchPaint()}.
+     */
+    @NonNull
+    protected static Paint createPointPaint(@NonNull final Paint paint, final float radius) {
+        final Paint pointPaint = new Paint(paint);
+        pointPaint.setStyle(Paint.Style.FILL);
+        pointPaint.setStrokeCap(Paint.Cap.ROUND);
+        pointPaint.setStrokeWidth(radius * 2);
+        return pointPaint;
+    }
+
     public abstract void onAuthFailed();
 
     public abstract void onAuthSuccess();
@@ -102,5 +222,25 @@ public abstract class PatternCell {
         @NonNull
         public abstract PatternCell buildInternal(@NonNull final Rect bound,
                                                   @NonNull final PatternPoint point);
+
+        /**
+         * Build the {@link PatternCell} which reads its state from the state array of the pattern.
+         *
+         * @param bound  Bound of the cell.
+         * @param point  {@link PatternPoint} of the cell.
+         * @param states States of all the cells of the pattern.
+         * @param index  Index of the cell in the states.
+         * @return {@link PatternCell}
+         */
+        @NonNull
+        public final PatternCell build(@NonNull final Rect bound,
+                                       @NonNull final PatternPoint point,
+                                       @NonNull final byte[] states,
+                                       final int index) {
+            final PatternCell cell = buildInternal(bound, point);
+            cell.mStates = states;
+            cell.mIndex = index;
+            return cell;
+        }
     }
 }